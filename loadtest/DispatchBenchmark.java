@@ -0,0 +1,83 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-event cost of delivering Gemini events to a session handler, before and after connections
+ * became single-owner.
+ *
+ * "fan-out" is the old GeminiWebSocketClient design: every event walks
+ * {@code sessionHandlers.values()} with a lambda. "direct" is the current one: a single volatile
+ * handler reference called directly. Both deliver the same audio part to a handler that does a
+ * trivial amount of work, so the difference is the dispatch itself.
+ *
+ * Run with: {@code java loadtest/DispatchBenchmark.java [eventsPerRound] [rounds]}
+ */
+public class DispatchBenchmark {
+
+    interface SessionHandler {
+        void onAudioData(String mimeType, String base64Data);
+    }
+
+    static class CountingHandler implements SessionHandler {
+        long sink;
+
+        @Override
+        public void onAudioData(String mimeType, String base64Data) {
+            sink += mimeType.length() + base64Data.length();
+        }
+    }
+
+    static class FanOutClient {
+        final Map<String, SessionHandler> sessionHandlers = new ConcurrentHashMap<>();
+
+        void handleAudio(String mimeType, String data) {
+            sessionHandlers.values().forEach(handler -> handler.onAudioData(mimeType, data));
+        }
+    }
+
+    static class DirectClient {
+        volatile SessionHandler handler;
+
+        void handleAudio(String mimeType, String data) {
+            handler.onAudioData(mimeType, data);
+        }
+    }
+
+    static volatile long blackhole;
+
+    public static void main(String[] args) {
+        long events = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String mimeType = "audio/pcm;rate=24000";
+        String data = "AAAA".repeat(1024);
+
+        CountingHandler fanOutHandler = new CountingHandler();
+        FanOutClient fanOut = new FanOutClient();
+        fanOut.sessionHandlers.put("session", fanOutHandler);
+
+        CountingHandler directHandler = new CountingHandler();
+        DirectClient direct = new DirectClient();
+        direct.handler = directHandler;
+
+        System.out.printf("%s, %d events per round, %d rounds (first round is warm-up)%n",
+            Runtime.version(), events, rounds);
+        for (int round = 0; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (long i = 0; i < events; i++) {
+                fanOut.handleAudio(mimeType, data);
+            }
+            double fanOutNs = (double) (System.nanoTime() - start) / events;
+
+            start = System.nanoTime();
+            for (long i = 0; i < events; i++) {
+                direct.handleAudio(mimeType, data);
+            }
+            double directNs = (double) (System.nanoTime() - start) / events;
+
+            blackhole = fanOutHandler.sink + directHandler.sink;
+            if (round > 0) {
+                System.out.printf("round %d: fan-out %.2f ns/event, direct %.2f ns/event%n", round, fanOutNs, directNs);
+            }
+        }
+    }
+}
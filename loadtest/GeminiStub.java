@@ -0,0 +1,101 @@
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the Gemini Live API, so a load test measures the interview node rather than
+ * Gemini's quota. It acknowledges every setup, and after each second of candidate audio it
+ * answers with a short model turn: 24 kHz PCM in 100 ms parts, a line of text and turnComplete.
+ *
+ * Plain ws only, so point the node at it with the jdk transport:
+ * {@code --gemini.transport.type=jdk --gemini.api.websocket-url=ws://localhost:9090/}
+ *
+ * Run with: {@code java -cp "$(cat target/cp.txt)" loadtest/GeminiStub.java [port]}
+ */
+public class GeminiStub extends WebSocketServer {
+
+    private static final int INPUTS_PER_TURN = 50; // 20 ms candidate frames
+    private static final int PARTS_PER_TURN = 5;
+    private static final String AUDIO_PART = Base64.getEncoder().encodeToString(new byte[24000 * 2 / 10]);
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong setups = new AtomicLong();
+    private final AtomicLong inputs = new AtomicLong();
+    private final AtomicLong turns = new AtomicLong();
+
+    GeminiStub(int port) {
+        super(new InetSocketAddress(port));
+        setReuseAddr(true);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        conn.setAttachment(new AtomicInteger());
+        open.incrementAndGet();
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        open.decrementAndGet();
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer message) {
+        onMessage(conn, StandardCharsets.UTF_8.decode(message).toString());
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        if (message.startsWith("{\"setup\"") || message.contains("\"setup\":")) {
+            setups.incrementAndGet();
+            conn.send("{\"setupComplete\":{}}");
+        } else if (message.contains("\"realtimeInput\"") || message.contains("\"realtime_input\"")) {
+            inputs.incrementAndGet();
+            AtomicInteger received = conn.getAttachment();
+            if (received.incrementAndGet() % INPUTS_PER_TURN == 0) {
+                sendTurn(conn);
+            }
+        } else if (message.contains("\"clientContent\"") && message.contains("\"turnComplete\":true")) {
+            sendTurn(conn);
+        }
+    }
+
+    private void sendTurn(WebSocket conn) {
+        turns.incrementAndGet();
+        for (int i = 0; i < PARTS_PER_TURN && conn.isOpen(); i++) {
+            conn.send("{\"serverContent\":{\"modelTurn\":{\"parts\":[{\"inlineData\":"
+                + "{\"mimeType\":\"audio/pcm;rate=24000\",\"data\":\"" + AUDIO_PART + "\"}}]}}}");
+        }
+        if (conn.isOpen()) {
+            conn.send("{\"serverContent\":{\"modelTurn\":{\"parts\":[{\"text\":\"Tell me more about that.\"}]}}}");
+            conn.send("{\"serverContent\":{\"turnComplete\":true}}");
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        System.err.println("Stub error: " + ex);
+    }
+
+    @Override
+    public void onStart() {
+        System.out.println("Gemini stub listening on " + getAddress());
+    }
+
+    public static void main(String[] args) throws Exception {
+        GeminiStub stub = new GeminiStub(args.length > 0 ? Integer.parseInt(args[0]) : 9090);
+        stub.start();
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.printf("open=%d setups=%d inputs=%d turns=%d%n",
+                stub.open.get(), stub.setups.get(), stub.inputs.get(), stub.turns.get());
+        }
+    }
+}
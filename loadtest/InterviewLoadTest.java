@@ -0,0 +1,382 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ramps up concurrent interviews against one node and reports how many it carried.
+ *
+ * Every virtual candidate signs up (or signs in), opens the STOMP WebSocket, starts an
+ * interview and streams 16 kHz PCM in real time, one 20 ms frame per message, for the hold
+ * period, then ends the interview. Candidates are added at a fixed rate. The node's capacity is
+ * the number of live interviews at the first start that failed or took longer than the start
+ * SLO; if none did, it is the peak.
+ *
+ * Run it once against a node started with {@code spring.threads.virtual.enabled=false} and once
+ * with {@code true} to compare the two execution modes. See README.md, "Load testing".
+ *
+ * Run with: {@code java loadtest/InterviewLoadTest.java [--option=value ...]}
+ */
+public class InterviewLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final int FRAME_MS = 20;
+    private static final String AUDIO_FRAME = toneFrame();
+
+    private final String baseUrl;
+    private final String webSocketUrl;
+    private final int candidates;
+    private final double rampPerSecond;
+    private final long holdMs;
+    private final long startSloMs;
+    private final String password;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger peakLive = new AtomicInteger();
+    private final AtomicInteger capacity = new AtomicInteger(-1);
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final List<Long> startMillis = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, AtomicInteger> failures = new HashMap<>();
+
+    InterviewLoadTest(Map<String, String> options) {
+        baseUrl = options.getOrDefault("url", "http://localhost:8080/api");
+        webSocketUrl = options.getOrDefault("ws", baseUrl.replaceFirst("^http", "ws") + "/ws/websocket");
+        candidates = Integer.parseInt(options.getOrDefault("candidates", "200"));
+        rampPerSecond = Double.parseDouble(options.getOrDefault("ramp-per-second", "5"));
+        holdMs = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("hold-seconds", "120")));
+        startSloMs = Long.parseLong(options.getOrDefault("start-slo-ms", "5000"));
+        password = options.getOrDefault("password", "loadtest-password");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        new InterviewLoadTest(options).run();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("%d candidates at %.1f/s against %s, %d s hold, start SLO %d ms%n",
+            candidates, rampPerSecond, webSocketUrl, holdMs / 1000, startSloMs);
+        CountDownLatch done = new CountDownLatch(candidates);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rampPerSecond);
+        long begin = System.nanoTime();
+        for (int i = 0; i < candidates; i++) {
+            int candidate = i;
+            Thread.ofVirtual().name("candidate-" + i).start(() -> {
+                try {
+                    interview(candidate);
+                } finally {
+                    done.countDown();
+                }
+            });
+            TimeUnit.NANOSECONDS.sleep(begin + (i + 1) * intervalNanos - System.nanoTime());
+            if (i % 10 == 9) {
+                System.out.printf("added %d, live %d, failed %d%n", i + 1, live.get(), failed.get());
+            }
+        }
+        done.await();
+        report();
+    }
+
+    private void interview(int candidate) {
+        Stomp stomp = null;
+        boolean counted = false;
+        try {
+            String token = signIn("loadtest-" + candidate + "@example.com");
+            stomp = Stomp.connect(http, webSocketUrl, token);
+            stomp.subscribe("/user/queue/session", "session");
+            stomp.subscribe("/user/queue/errors", "errors");
+
+            long start = System.nanoTime();
+            stomp.send("/app/interview/start", "{}");
+            Stomp.Frame reply = stomp.await(frame -> frame.destination() != null
+                && (frame.destination().endsWith("/queue/session") || frame.destination().endsWith("/queue/errors")),
+                startSloMs * 4);
+            long startMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (reply == null || reply.destination().endsWith("/queue/errors")) {
+                fail(reply == null ? "start timeout" : "start error " + reply.body());
+                return;
+            }
+            String sessionId = reply.body().replace("\"", "").trim();
+            startMillis.add(startMs);
+            started.incrementAndGet();
+            int now = live.incrementAndGet();
+            counted = true;
+            peakLive.accumulateAndGet(now, Math::max);
+            if (startMs > startSloMs) {
+                capacity.compareAndSet(-1, now - 1);
+            }
+
+            stomp.subscribe("/topic/interview/" + sessionId, "interview");
+            stomp.onMessage(frame -> messagesReceived.incrementAndGet());
+            String message = "{\"type\":\"AUDIO\",\"sessionId\":\"" + sessionId
+                + "\",\"mediaChunks\":[{\"mimeType\":\"audio/pcm;rate=16000\",\"data\":\"" + AUDIO_FRAME + "\"}]}";
+            long next = System.nanoTime();
+            long end = next + TimeUnit.MILLISECONDS.toNanos(holdMs);
+            while (next < end) {
+                if (!stomp.isOpen()) {
+                    fail("socket closed mid-interview");
+                    return;
+                }
+                stomp.send("/app/interview/message", message);
+                framesSent.incrementAndGet();
+                next += TimeUnit.MILLISECONDS.toNanos(FRAME_MS);
+                TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+            }
+            stomp.send("/app/interview/end", sessionId);
+            completed.incrementAndGet();
+        } catch (Exception e) {
+            fail(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            if (counted) {
+                live.decrementAndGet();
+            }
+            if (stomp != null) {
+                stomp.close();
+            }
+        }
+    }
+
+    private String signIn(String email) throws Exception {
+        post("/auth/register", "{\"email\":\"" + email + "\",\"password\":\"" + password
+            + "\",\"firstName\":\"Load\",\"lastName\":\"Test\"}");
+        HttpResponse<String> login = post("/auth/login",
+            "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+        Matcher token = TOKEN.matcher(login.body());
+        if (login.statusCode() != 200 || !token.find()) {
+            throw new IllegalStateException("login failed with " + login.statusCode());
+        }
+        return token.group(1);
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void fail(String reason) {
+        failed.incrementAndGet();
+        capacity.compareAndSet(-1, live.get());
+        synchronized (failures) {
+            failures.computeIfAbsent(reason.length() > 80 ? reason.substring(0, 80) : reason,
+                ignored -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void report() {
+        List<Long> sorted;
+        synchronized (startMillis) {
+            sorted = new ArrayList<>(startMillis);
+        }
+        Collections.sort(sorted);
+        System.out.println();
+        System.out.printf("started %d, completed %d, failed %d%n", started.get(), completed.get(), failed.get());
+        System.out.printf("start latency ms: p50 %d, p95 %d, p99 %d, max %d%n",
+            percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        System.out.printf("audio frames sent %d, messages received %d%n", framesSent.get(), messagesReceived.get());
+        System.out.printf("peak concurrent interviews %d%n", peakLive.get());
+        System.out.printf("capacity (live interviews before the first failed or slow start) %s%n",
+            capacity.get() < 0 ? peakLive.get() + " (no start failed or missed the SLO)" : capacity.get());
+        failures.forEach((reason, count) -> System.out.printf("  %5d x %s%n", count.get(), reason));
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    /**
+     * 20 ms of a 440 Hz tone, loud enough to pass the node's voice activity detection
+     */
+    private static String toneFrame() {
+        int samples = 16000 * FRAME_MS / 1000;
+        ByteBuffer pcm = ByteBuffer.allocate(samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < samples; i++) {
+            pcm.putShort((short) (8000 * Math.sin(2 * Math.PI * 440 * i / 16000)));
+        }
+        return Base64.getEncoder().encodeToString(pcm.array());
+    }
+
+    /**
+     * Just enough STOMP 1.2 over a raw WebSocket for the test
+     */
+    static class Stomp implements WebSocket.Listener {
+
+        record Frame(String command, Map<String, String> headers, String body) {
+            String destination() {
+                return headers.get("destination");
+            }
+        }
+
+        interface FrameFilter {
+            boolean matches(Frame frame);
+        }
+
+        private final StringBuilder partial = new StringBuilder();
+        private final List<Frame> inbox = new ArrayList<>();
+        private final CompletableFuture<Void> connected = new CompletableFuture<>();
+        private volatile WebSocket socket;
+        private volatile java.util.function.Consumer<Frame> messageListener;
+        private int subscriptions;
+
+        static Stomp connect(HttpClient http, String url, String token) throws Exception {
+            Stomp stomp = new Stomp();
+            stomp.socket = http.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(URI.create(url), stomp)
+                .get(10, TimeUnit.SECONDS);
+            stomp.write("CONNECT\naccept-version:1.2\nheart-beat:0,0\nAuthorization:Bearer " + token + "\n\n");
+            stomp.connected.get(10, TimeUnit.SECONDS);
+            return stomp;
+        }
+
+        void subscribe(String destination, String id) {
+            write("SUBSCRIBE\nid:" + id + "-" + subscriptions++ + "\ndestination:" + destination + "\n\n");
+        }
+
+        void send(String destination, String body) {
+            write("SEND\ndestination:" + destination + "\ncontent-type:application/json\n\n" + body);
+        }
+
+        /**
+         * Route later MESSAGE frames that no await is looking for to a listener
+         */
+        void onMessage(java.util.function.Consumer<Frame> listener) {
+            synchronized (inbox) {
+                messageListener = listener;
+                inbox.clear();
+            }
+        }
+
+        Frame await(FrameFilter filter, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            synchronized (inbox) {
+                while (true) {
+                    for (Frame frame : inbox) {
+                        if (filter.matches(frame)) {
+                            inbox.remove(frame);
+                            return frame;
+                        }
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0 || socket.isInputClosed()) {
+                        return null;
+                    }
+                    inbox.wait(remaining);
+                }
+            }
+        }
+
+        boolean isOpen() {
+            return !socket.isInputClosed() && !socket.isOutputClosed();
+        }
+
+        void close() {
+            if (isOpen()) {
+                write("DISCONNECT\n\n");
+                socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+            }
+        }
+
+        private synchronized void write(String frame) {
+            // One frame at a time: the JDK WebSocket rejects a send while another is pending
+            socket.sendText(frame + "\0", true).join();
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            int end;
+            while ((end = partial.indexOf("\0")) >= 0) {
+                String raw = partial.substring(0, end);
+                partial.delete(0, end + 1);
+                handle(raw);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            connected.completeExceptionally(new IllegalStateException("closed " + statusCode + " " + reason));
+            synchronized (inbox) {
+                inbox.notifyAll();
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            connected.completeExceptionally(error);
+            synchronized (inbox) {
+                inbox.notifyAll();
+            }
+        }
+
+        private void handle(String raw) {
+            String text = raw.stripLeading(); // heart-beat newlines
+            if (text.isEmpty()) {
+                return;
+            }
+            int headerEnd = text.indexOf("\n\n");
+            String head = headerEnd >= 0 ? text.substring(0, headerEnd) : text;
+            String body = headerEnd >= 0 ? text.substring(headerEnd + 2) : "";
+            String[] lines = head.split("\n");
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+                }
+            }
+            Frame frame = new Frame(lines[0].trim(), headers, body);
+            switch (frame.command()) {
+                case "CONNECTED" -> connected.complete(null);
+                case "ERROR" -> connected.completeExceptionally(new IllegalStateException("STOMP ERROR " + headers.get("message")));
+                case "MESSAGE" -> {
+                    synchronized (inbox) {
+                        if (messageListener != null) {
+                            messageListener.accept(frame);
+                        } else {
+                            inbox.add(frame);
+                            inbox.notifyAll();
+                        }
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+}
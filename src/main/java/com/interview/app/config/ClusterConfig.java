@@ -0,0 +1,44 @@
+package com.interview.app.config;
+
+import com.interview.app.service.SessionRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@Slf4j
+@Configuration
+public class ClusterConfig {
+    
+    @Value("${cluster.node-id:}")
+    private String nodeId;
+    
+    @Value("${cluster.advertised-url:}")
+    private String advertisedUrl;
+    
+    @Value("${server.port:8080}")
+    private int port;
+    
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+    
+    /**
+     * This node's identity and the base URL other nodes reach it on; both default to the host name
+     */
+    @Bean
+    public SessionRegistry.Member localMember() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        String id = nodeId.isBlank() ? host + ":" + port : nodeId;
+        String url = advertisedUrl.isBlank() ? "http://" + host + ":" + port + contextPath : advertisedUrl;
+        log.info("Cluster node {} reachable at {}", id, url);
+        return new SessionRegistry.Member(id, url);
+    }
+}
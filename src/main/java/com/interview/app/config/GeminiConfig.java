@@ -1,13 +1,46 @@
 package com.interview.app.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @Configuration
 public class GeminiConfig {
     
-    // Configuration moved to GeminiConnectionPool
-    // This class is kept for future Gemini-related configurations
+    // Connection settings live in GeminiConnectionPool
+    
+    @Value("${gemini.outbound.threads:4}")
+    private int outboundThreads;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
     
+    /**
+     * Shared executor that drains the per-session outbound queues to Gemini
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService geminiOutboundExecutor() {
+        if (virtualThreads) {
+            // Timers stay on a few carriers, but blocking sends and closes no longer pin platform threads
+            log.info("Creating Gemini outbound executor on virtual threads");
+            return Executors.newScheduledThreadPool(outboundThreads,
+                Thread.ofVirtual().name("gemini-outbound-", 1).factory());
+        }
+        
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "gemini-outbound-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        log.info("Creating Gemini outbound executor with {} threads", outboundThreads);
+        return Executors.newScheduledThreadPool(outboundThreads, threadFactory);
+    }
 }
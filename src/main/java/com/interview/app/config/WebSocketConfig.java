@@ -1,11 +1,15 @@
 package com.interview.app.config;
 
 import com.interview.app.security.WebSocketAuthInterceptor;
+import com.interview.app.security.WebSocketRateLimitInterceptor;
+import com.interview.app.service.BargeInController;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -18,6 +22,14 @@ import org.springframework.web.socket.config.annotation.WebSocketTransportRegist
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final WebSocketRateLimitInterceptor webSocketRateLimitInterceptor;
+    private final BargeInController bargeInController;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Value("${interview.threads.channel-pool-size:1024}")
+    private int channelPoolSize;
 
     @Bean
     public ThreadPoolTaskScheduler taskScheduler() {
@@ -40,6 +52,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Hand frames from one client to the inbound channel in arrival order
+        registry.setPreserveReceiveOrder(true);
     }
     
     @Override
@@ -48,10 +62,38 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registration.setMessageSizeLimit(10 * 1024 * 1024); // 10MB
         registration.setSendBufferSizeLimit(10 * 1024 * 1024); // 10MB
         registration.setSendTimeLimit(60 * 1000); // 60 seconds
+        // Stale model audio still in the send buffer is dropped as the socket takes it
+        registration.addDecoratorFactory(bargeInController);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(webSocketAuthInterceptor);
+        // Rate limits run after authentication so frames are charged to the user
+        registration.interceptors(webSocketAuthInterceptor, webSocketRateLimitInterceptor);
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadChannelExecutor("ws-inbound-"));
+        }
+    }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Drop model audio made stale by a barge-in before it reaches the socket
+        registration.interceptors(bargeInController);
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadChannelExecutor("ws-outbound-"));
+        }
+    }
+    
+    /**
+     * Channel executor whose workers are virtual threads. The pool size only caps concurrency,
+     * a worker blocked on a Gemini send or a Mongo call does not hold a platform thread.
+     */
+    private ThreadPoolTaskExecutor virtualThreadChannelExecutor(String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name(threadNamePrefix, 1).factory());
+        executor.setCorePoolSize(channelPoolSize);
+        executor.setMaxPoolSize(channelPoolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
     }
 }
@@ -0,0 +1,94 @@
+package com.interview.app.controller;
+
+import com.interview.app.dto.InterviewMessage;
+import com.interview.app.dto.MediaStreamRequest;
+import com.interview.app.service.ClusterForwarder;
+import com.interview.app.service.InterviewLaneDispatcher;
+import com.interview.app.service.InterviewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints for traffic forwarded by {@link ClusterForwarder}. Only requests with
+ * the cluster token are served, and only for sessions owned by this node and started by the
+ * user the forwarding node authenticated.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/cluster")
+@RequiredArgsConstructor
+public class ClusterController {
+    
+    private final InterviewService interviewService;
+    private final InterviewLaneDispatcher laneDispatcher;
+    private final ClusterForwarder clusterForwarder;
+    
+    @PostMapping("/media/{sessionId}")
+    public ResponseEntity<Map<String, String>> forwardedMedia(
+            @PathVariable String sessionId,
+            @RequestHeader(value = ClusterForwarder.TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = ClusterForwarder.USER_HEADER, required = false) String userId,
+            @RequestBody MediaStreamRequest payload) {
+        if (!clusterForwarder.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!interviewService.isActive(sessionId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", "error", "message", "Unknown session"));
+        }
+        if (!interviewService.isOwnedBy(sessionId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        if (payload.getMediaChunks() != null) {
+            interviewService.streamMedia(sessionId, payload.getMediaChunks());
+        }
+        return ResponseEntity.ok(Map.of("status", "success"));
+    }
+    
+    @PostMapping("/message")
+    public ResponseEntity<Void> forwardedMessage(
+            @RequestHeader(value = ClusterForwarder.TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = ClusterForwarder.USER_HEADER, required = false) String userId,
+            @RequestBody InterviewMessage message) {
+        if (!clusterForwarder.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!interviewService.isActive(message.getSessionId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!interviewService.isOwnedBy(message.getSessionId(), userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        laneDispatcher.dispatch(message.getSessionId(), () -> interviewService.processMessage(message));
+        return ResponseEntity.accepted().build();
+    }
+    
+    @PostMapping("/end/{sessionId}")
+    public ResponseEntity<Void> forwardedEnd(
+            @PathVariable String sessionId,
+            @RequestHeader(value = ClusterForwarder.TOKEN_HEADER, required = false) String token,
+            @RequestHeader(value = ClusterForwarder.USER_HEADER, required = false) String userId) {
+        if (!clusterForwarder.isTrusted(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!interviewService.isActive(sessionId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!interviewService.isOwnedBy(sessionId, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        log.info("Ending forwarded interview session: {}", sessionId);
+        if (!laneDispatcher.dispatch(sessionId, () -> interviewService.endInterview(sessionId))) {
+            interviewService.endInterview(sessionId, false);
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
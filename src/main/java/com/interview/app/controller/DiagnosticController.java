@@ -1,7 +1,22 @@
 package com.interview.app.controller;
 
+import com.interview.app.media.ImageFrameProcessor;
+import com.interview.app.service.AdmissionController;
+import com.interview.app.service.BargeInController;
+import com.interview.app.service.ClusterForwarder;
+import com.interview.app.service.InboundRateLimiter;
+import com.interview.app.service.InterviewLaneDispatcher;
+import com.interview.app.service.InterviewPrewarmer;
+import com.interview.app.service.InterviewService;
+import com.interview.app.service.SessionPlacement;
+import com.interview.app.service.SessionReaper;
+import com.interview.app.service.SessionRegistry;
 import com.interview.app.websocket.GeminiWebSocketClient;
 import com.interview.app.websocket.GeminiConnectionPool;
+import com.interview.app.websocket.GeminiReconnectSupervisor;
+import com.interview.app.websocket.GeminiSetupTemplates;
+import com.interview.app.websocket.GeminiTlsContext;
+import com.interview.app.websocket.GeminiTransportFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +24,10 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RestController
@@ -17,6 +36,21 @@ import java.util.Map;
 public class DiagnosticController {
     
     private final GeminiConnectionPool connectionPool;
+    private final GeminiTlsContext tlsContext;
+    private final GeminiTransportFactory transportFactory;
+    private final InterviewLaneDispatcher laneDispatcher;
+    private final InterviewService interviewService;
+    private final GeminiReconnectSupervisor reconnectSupervisor;
+    private final ImageFrameProcessor imageFrameProcessor;
+    private final BargeInController bargeInController;
+    private final GeminiSetupTemplates setupTemplates;
+    private final InterviewPrewarmer interviewPrewarmer;
+    private final AdmissionController admissionController;
+    private final InboundRateLimiter rateLimiter;
+    private final SessionReaper sessionReaper;
+    private final SessionRegistry sessionRegistry;
+    private final SessionPlacement sessionPlacement;
+    private final ClusterForwarder clusterForwarder;
     
     @Value("${gemini.api.key}")
     private String apiKey;
@@ -32,6 +66,7 @@ public class DiagnosticController {
         result.put("apiKeyPresent", apiKey != null && !apiKey.isEmpty());
         result.put("apiKeyLength", apiKey != null ? apiKey.length() : 0);
         result.put("activeConnections", connectionPool.getActiveConnectionCount());
+        result.put("transport", transportFactory.getTransportType());
         
         // Create a test connection to verify connectivity
         String testSessionId = "diagnostic-test-" + System.currentTimeMillis();
@@ -39,18 +74,16 @@ public class DiagnosticController {
             log.info("Creating test connection for diagnostics...");
             GeminiWebSocketClient testClient = connectionPool.getConnection(testSessionId);
             
-            result.put("websocketState", testClient.getReadyState().toString());
+            result.put("websocketState", testClient.getState());
             result.put("isOpen", testClient.isOpen());
-            result.put("isClosing", testClient.isClosing());
-            result.put("isClosed", testClient.isClosed());
             
             // Try to connect if not connected
             if (!testClient.isOpen()) {
                 try {
                     log.info("Attempting to connect to Gemini...");
-                    boolean connected = testClient.connectBlocking();
-                    result.put("connectionAttempt", connected);
-                    result.put("newState", testClient.getReadyState().toString());
+                    testClient.connectAsync().get(10, TimeUnit.SECONDS);
+                    result.put("connectionAttempt", testClient.isOpen());
+                    result.put("newState", testClient.getState());
                 } catch (Exception e) {
                     result.put("connectionError", e.getMessage());
                     log.error("Connection error", e);
@@ -68,6 +101,92 @@ public class DiagnosticController {
         return result;
     }
     
+    @GetMapping("/pool")
+    public Map<String, Object> poolStats() {
+        Map<String, Object> result = new HashMap<>(connectionPool.getPoolStats());
+        result.put("activeConnections", connectionPool.getActiveConnectionCount());
+        return result;
+    }
+    
+    @GetMapping("/tls")
+    public Map<String, Object> tlsStats() {
+        return tlsContext.getHandshakeStats();
+    }
+    
+    @GetMapping("/reconnects")
+    public Map<String, Object> reconnectStats() {
+        return reconnectSupervisor.getStats();
+    }
+    
+    @GetMapping("/sessions")
+    public Map<String, Object> sessionStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("sessions", interviewService.getSessionStats());
+        return result;
+    }
+    
+    @GetMapping("/lanes")
+    public Map<String, Object> laneStats() {
+        return laneDispatcher.getStats();
+    }
+    
+    @GetMapping("/images")
+    public Map<String, Object> imageStats() {
+        return imageFrameProcessor.getStats();
+    }
+    
+    @GetMapping("/barge-in")
+    public Map<String, Object> bargeInStats() {
+        return bargeInController.getStats();
+    }
+    
+    @GetMapping("/setup-templates")
+    public Map<String, Object> setupTemplateStats() {
+        return setupTemplates.getStats();
+    }
+    
+    @PostMapping("/setup-templates/reload")
+    public Map<String, Object> reloadSetupTemplates() {
+        return setupTemplates.reload();
+    }
+    
+    @GetMapping("/prewarm")
+    public Map<String, Object> prewarmStats() {
+        return interviewPrewarmer.getStats();
+    }
+    
+    @GetMapping("/admission")
+    public Map<String, Object> admissionStats() {
+        return admissionController.getStats();
+    }
+    
+    @GetMapping("/rate-limits")
+    public Map<String, Object> rateLimitStats() {
+        return rateLimiter.getStats();
+    }
+    
+    @GetMapping("/reaper")
+    public Map<String, Object> reaperStats() {
+        return sessionReaper.getStats();
+    }
+    
+    @GetMapping("/cluster")
+    public Map<String, Object> clusterStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("registry", sessionRegistry.getStats());
+        result.put("placement", sessionPlacement.getStats());
+        result.put("forwarding", clusterForwarder.getStats());
+        return result;
+    }
+    
+    @GetMapping("/outbound")
+    public Map<String, Object> outboundStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("activeConnections", connectionPool.getActiveConnectionCount());
+        result.put("sessions", connectionPool.getOutboundStats());
+        return result;
+    }
+    
     @PostMapping("/test-setup")
     public Map<String, Object> testSetup() {
         Map<String, Object> result = new HashMap<>();
@@ -81,9 +200,9 @@ public class DiagnosticController {
         try {
             // Get dedicated connection for test
             GeminiWebSocketClient testClient = connectionPool.getConnection(testSessionId);
-            result.put("websocketState", testClient.getReadyState().toString());
+            result.put("websocketState", testClient.getState());
             
-            testClient.setupSession(testSessionId, new GeminiWebSocketClient.SessionHandler() {
+            CompletableFuture<Void> setup = testClient.setupSession(testSessionId, new GeminiWebSocketClient.SessionHandler() {
                 @Override
                 public void onSetupComplete() {
                     responses.put("setupComplete", true);
@@ -119,11 +238,14 @@ public class DiagnosticController {
                 }
             });
             
-            // Wait a bit for response
+            // Wait for setup, then a bit longer for any model response
             try {
+                setup.get(10, TimeUnit.SECONDS);
                 Thread.sleep(3000);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                responses.put("setupError", e.getMessage());
             }
             
             result.put("responses", responses);
@@ -0,0 +1,32 @@
+package com.interview.app.controller;
+
+import com.interview.app.service.DrainCoordinator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint to drain this node before it is stopped: GET reports progress,
+ * POST starts the drain
+ */
+@Component
+@Endpoint(id = "drain")
+@RequiredArgsConstructor
+public class DrainEndpoint {
+    
+    private final DrainCoordinator drainCoordinator;
+    
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return drainCoordinator.getProgress();
+    }
+    
+    @WriteOperation
+    public Map<String, Object> drain() {
+        return drainCoordinator.drain();
+    }
+}
@@ -1,11 +1,16 @@
 package com.interview.app.controller;
 
+import com.interview.app.service.SessionPlacement;
+import com.interview.app.service.SessionRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,6 +19,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InterviewController {
     
+    private final SessionPlacement sessionPlacement;
+    private final SessionRegistry sessionRegistry;
+    
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
@@ -31,4 +39,25 @@ public class InterviewController {
         config.put("features", new String[]{"audio", "video", "screen-share", "text"});
         return ResponseEntity.ok(config);
     }
+    
+    /**
+     * Node to open the interview WebSocket on, by interview id when the round is known so the
+     * candidate lands on the node that pre-warmed it
+     */
+    @GetMapping("/placement")
+    public ResponseEntity<Map<String, Object>> getPlacement(
+            @RequestParam(required = false) String interviewId,
+            Principal principal) {
+        String key = interviewId != null ? interviewId : principal.getName();
+        SessionRegistry.Member node = sessionPlacement.place(key);
+        if (node == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Map<String, Object> placement = new HashMap<>();
+        placement.put("nodeId", node.getNodeId());
+        placement.put("url", node.getUrl());
+        placement.put("websocketEndpoint", node.getUrl() + "/ws");
+        placement.put("local", node.equals(sessionRegistry.self()));
+        return ResponseEntity.ok(placement);
+    }
 }
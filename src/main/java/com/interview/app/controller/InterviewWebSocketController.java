@@ -1,26 +1,51 @@
 package com.interview.app.controller;
 
 import com.interview.app.dto.InterviewMessage;
+import com.interview.app.dto.StartInterviewRequest;
 import com.interview.app.security.UserPrincipal;
+import com.interview.app.service.ClusterForwarder;
+import com.interview.app.service.InterviewLaneDispatcher;
 import com.interview.app.service.InterviewService;
+import com.interview.app.service.SessionReaper;
+import com.interview.app.service.SessionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 public class InterviewWebSocketController {
     
     private final InterviewService interviewService;
+    private final InterviewLaneDispatcher laneDispatcher;
+    private final SessionReaper sessionReaper;
+    private final SessionRegistry sessionRegistry;
+    private final ClusterForwarder clusterForwarder;
     
+    /**
+     * The reply on {@code /user/queue/session} carries the session id and is only sent once Gemini
+     * has acknowledged the setup, so it is also the client's signal that the session is ready.
+     * A start that fails is reported on {@code /user/queue/errors} instead.
+     */
     @MessageMapping("/interview/start")
     @SendToUser("/queue/session")
-    public String startInterview(Authentication authentication) {
+    public CompletableFuture<String> startInterview(@Payload(required = false) StartInterviewRequest request,
+                                                    SimpMessageHeaderAccessor headerAccessor,
+                                                    Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             log.error("Unauthenticated user trying to start interview");
             throw new RuntimeException("User not authenticated");
@@ -30,7 +55,13 @@ public class InterviewWebSocketController {
         String userId = userPrincipal.getId();
         
         log.info("Starting interview for authenticated user: {} ({})", userPrincipal.getEmail(), userId);
-        return interviewService.startInterview(userId);
+        // The interview ends with the STOMP session that started it
+        String clientSessionId = headerAccessor.getSessionId();
+        return interviewService.startInterview(userId, authentication.getName(), request, clientSessionId)
+            .thenApply(sessionId -> {
+                sessionReaper.bindClientSession(clientSessionId, sessionId);
+                return sessionId;
+            });
     }
     
     @MessageMapping("/interview/message")
@@ -41,7 +72,16 @@ public class InterviewWebSocketController {
         }
         
         log.debug("Received message for session: {}", message.getSessionId());
-        interviewService.processMessage(message);
+        String userId = userId(authentication);
+        // Messages for another node's session go straight on, so no lane is opened for it here
+        if (forwardToOwner(message, userId)) {
+            return;
+        }
+        if (!interviewService.isOwnedBy(message.getSessionId(), userId)) {
+            log.warn("User {} sent a message for a session they do not own: {}", userId, message.getSessionId());
+            return;
+        }
+        laneDispatcher.dispatch(message.getSessionId(), () -> interviewService.processMessage(message));
     }
     
     @MessageMapping("/interview/end")
@@ -51,7 +91,72 @@ public class InterviewWebSocketController {
             return;
         }
         
+        String userId = userId(authentication);
+        SessionRegistry.Member owner = remoteOwner(sessionId);
+        if (owner != null) {
+            clusterForwarder.forwardEnd(owner, userId, sessionId);
+            return;
+        }
+        if (!interviewService.isOwnedBy(sessionId, userId)) {
+            log.warn("User {} tried to end a session they do not own: {}", userId, sessionId);
+            return;
+        }
         log.info("Ending interview session: {}", sessionId);
-        interviewService.endInterview(sessionId);
+        // Run after the session's queued messages; ending the session retires its lane. An end
+        // must never be lost, so with the lane full it runs here without waiting on Gemini.
+        if (!laneDispatcher.dispatch(sessionId, () -> interviewService.endInterview(sessionId))) {
+            interviewService.endInterview(sessionId, false);
+        }
+    }
+    
+    /**
+     * Hand a message for a session started on another node to that node. Its replies are
+     * still published on the owner's broker.
+     */
+    private boolean forwardToOwner(InterviewMessage message, String userId) {
+        SessionRegistry.Member owner = remoteOwner(message.getSessionId());
+        if (owner == null) {
+            return false;
+        }
+        clusterForwarder.forwardMessage(owner, userId, message);
+        return true;
+    }
+    
+    /**
+     * The node a session runs on when that is another node, else null
+     */
+    private SessionRegistry.Member remoteOwner(String sessionId) {
+        if (!clusterForwarder.isEnabled() || sessionId == null || interviewService.isActive(sessionId)) {
+            return null;
+        }
+        SessionRegistry.Member owner = sessionRegistry.ownerOf(sessionId);
+        return owner == null || owner.equals(sessionRegistry.self()) ? null : owner;
+    }
+    
+    /**
+     * Report failures to the client: a rejected start (waiting room full, server draining), a
+     * setup that timed out or any other error. Without this a failed start would never reply.
+     */
+    @MessageExceptionHandler
+    @SendToUser("/queue/errors")
+    public Map<String, String> handleException(Exception exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+            ? exception.getCause() : exception;
+        if (cause instanceof CancellationException) {
+            // The client left the waiting room, nobody is listening
+            return Map.of("error", "CANCELLED", "message", cause.getMessage());
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return Map.of("error", "REJECTED", "message", cause.getMessage());
+        }
+        if (cause instanceof TimeoutException) {
+            return Map.of("error", "TIMEOUT", "message", "The interview could not be set up in time, please try again");
+        }
+        log.error("Interview request failed", cause);
+        return Map.of("error", "FAILED", "message", "The interview request failed, please try again");
+    }
+    
+    private static String userId(Authentication authentication) {
+        return ((UserPrincipal) authentication.getPrincipal()).getId();
     }
 }
@@ -1,10 +1,18 @@
 package com.interview.app.controller;
 
-import com.interview.app.service.InterviewService;
 import com.interview.app.dto.MediaChunk;
+import com.interview.app.dto.MediaStreamRequest;
+import com.interview.app.security.UserPrincipal;
+import com.interview.app.service.ClusterForwarder;
+import com.interview.app.service.InboundRateLimiter;
+import com.interview.app.service.InterviewService;
+import com.interview.app.service.SessionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,24 +26,45 @@ import java.util.Map;
 public class MediaController {
     
     private final InterviewService interviewService;
+    private final InboundRateLimiter rateLimiter;
+    private final SessionRegistry sessionRegistry;
+    private final ClusterForwarder clusterForwarder;
     
     @PostMapping("/stream/{sessionId}")
     public ResponseEntity<Map<String, String>> streamMedia(
             @PathVariable String sessionId,
-            @RequestBody Map<String, Object> payload) {
+            @RequestBody MediaStreamRequest payload,
+            Authentication authentication) {
         try {
-            // Extract media chunks from payload
-            List<Map<String, String>> chunks = (List<Map<String, String>>) payload.get("mediaChunks");
+            List<MediaChunk> chunks = payload.getMediaChunks() != null ? payload.getMediaChunks() : List.of();
             
-            for (Map<String, String> chunk : chunks) {
-                MediaChunk mediaChunk = new MediaChunk();
-                mediaChunk.setMimeType(chunk.get("mimeType"));
-                mediaChunk.setData(chunk.get("data"));
-                
-                // Send directly to Gemini, bypassing STOMP
-                interviewService.sendMediaToGemini(sessionId, List.of(mediaChunk));
+            if (!withinRateLimit(authentication, sessionId, chunks)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(Map.of("status", "throttled"));
             }
             
+            String userId = ((UserPrincipal) authentication.getPrincipal()).getId();
+            // A session started on another node is handed to that node, which checks the user
+            if (!interviewService.isActive(sessionId)) {
+                SessionRegistry.Member owner = sessionRegistry.ownerOf(sessionId);
+                if (owner != null && !owner.equals(sessionRegistry.self()) && clusterForwarder.isEnabled()) {
+                    int status = clusterForwarder.forwardMedia(owner, sessionId, userId, payload);
+                    return ResponseEntity.status(status)
+                            .body(Map.of("status", status == 200 ? "success" : "error", "node", owner.getNodeId()));
+                }
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("status", "error", "message", "Unknown session"));
+            }
+            if (!interviewService.isOwnedBy(sessionId, userId)) {
+                log.warn("User {} sent media for a session they do not own: {}", userId, sessionId);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("status", "error", "message", "Not your session"));
+            }
+            
+            // Send directly to Gemini, bypassing STOMP
+            interviewService.streamMedia(sessionId, chunks);
+            
             return ResponseEntity.ok(Map.of("status", "success"));
         } catch (Exception e) {
             log.error("Error streaming media", e);
@@ -43,4 +72,34 @@ public class MediaController {
                     .body(Map.of("status", "error", "message", e.getMessage()));
         }
     }
+    
+    /**
+     * Charge the request's audio and screen/video bytes to the user's and session's budgets
+     */
+    private boolean withinRateLimit(Authentication principal, String sessionId, List<MediaChunk> chunks) {
+        long audioBytes = 0;
+        long visualBytes = 0;
+        for (MediaChunk chunk : chunks) {
+            String data = chunk.getData();
+            long size = data != null ? data.length() : 0;
+            if (rateLimiter.classify(chunk.getMimeType()) == InboundRateLimiter.MediaClass.VISUAL) {
+                visualBytes += size;
+            } else {
+                audioBytes += size;
+            }
+        }
+        
+        String user = principal != null ? principal.getName() : null;
+        if (audioBytes > 0 && !rateLimiter.acquire(user, sessionId, InboundRateLimiter.MediaClass.AUDIO, audioBytes)) {
+            return false;
+        }
+        if (visualBytes > 0 && !rateLimiter.acquire(user, sessionId, InboundRateLimiter.MediaClass.VISUAL, visualBytes)) {
+            // The whole request is rejected, so its audio was not sent either
+            if (audioBytes > 0) {
+                rateLimiter.refund(user, sessionId, InboundRateLimiter.MediaClass.AUDIO, audioBytes);
+            }
+            return false;
+        }
+        return true;
+    }
 }
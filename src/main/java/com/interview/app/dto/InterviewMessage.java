@@ -14,6 +14,9 @@ public class InterviewMessage {
     private String content;
     private List<MediaChunk> mediaChunks;
     private Long timestamp;
+    private Long sequence; // Downstream audio frame number within the session
+    private Long mediaTimestamp; // Start of the audio frame in the session's response stream, in ms
+    private Long generation; // Audio generation; bumped on every interruption, older audio is stale
     
     public enum MessageType {
         TEXT,
@@ -21,6 +24,10 @@ public class InterviewMessage {
         VIDEO,
         SCREEN_SHARE,
         MIXED,
-        CONTROL
+        CONTROL,
+        RECONNECTING, // Gemini dropped and a reconnect is under way; content is the attempt number
+        RECONNECTED,
+        DRAINING, // The server is draining; content is when the session will be ended, epoch millis
+        INTERRUPTED // The candidate barged in; audio from before generation is stale
     }
 }
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -19,6 +20,7 @@ public class InterviewRoundDto {
     private Candidate.InterviewRound.InterviewLevel level;
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
+    private List<String> transcript;
     
     public static InterviewRoundDto fromInterviewRound(Candidate.InterviewRound round) {
         InterviewRoundDto dto = new InterviewRoundDto();
@@ -29,6 +31,7 @@ public class InterviewRoundDto {
         dto.setLevel(round.getLevel());
         dto.setStartedAt(round.getStartedAt());
         dto.setCompletedAt(round.getCompletedAt());
+        dto.setTranscript(round.getTranscript());
         return dto;
     }
     
@@ -41,6 +44,7 @@ public class InterviewRoundDto {
         round.setLevel(this.level);
         round.setStartedAt(this.startedAt);
         round.setCompletedAt(this.completedAt);
+        round.setTranscript(this.transcript);
         return round;
     }
 }
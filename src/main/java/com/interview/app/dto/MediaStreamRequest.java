@@ -0,0 +1,14 @@
+package com.interview.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaStreamRequest {
+    private List<MediaChunk> mediaChunks;
+}
@@ -0,0 +1,18 @@
+package com.interview.app.dto;
+
+import com.interview.app.model.Candidate.InterviewRound.InterviewLevel;
+import com.interview.app.model.Candidate.InterviewRound.InterviewType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartInterviewRequest {
+    
+    private String interviewId; // Scheduled round of the signed-in candidate, claims its pre-warmed session
+    private String audioCodec; // Downstream audio codec: pcm (default), mulaw or ima-adpcm
+    private InterviewType interviewType; // Selects the interviewer prompt, optional; a scheduled round uses its own
+    private InterviewLevel level;
+}
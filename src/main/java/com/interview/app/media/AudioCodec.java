@@ -0,0 +1,53 @@
+package com.interview.app.media;
+
+import java.util.function.Supplier;
+
+/**
+ * Downstream audio codecs a client can ask for when starting an interview. The codec id is
+ * carried in the audio mime type, e.g. {@code audio/pcmu;rate=24000}.
+ */
+public enum AudioCodec {
+    
+    PCM("pcm", "audio/pcm", null),
+    MULAW("mulaw", "audio/pcmu", MuLawEncoder::new),
+    IMA_ADPCM("ima-adpcm", "audio/ima-adpcm", ImaAdpcmEncoder::new);
+    
+    private final String id;
+    private final String mimeBase;
+    private final Supplier<AudioEncoder> encoderFactory;
+    
+    AudioCodec(String id, String mimeBase, Supplier<AudioEncoder> encoderFactory) {
+        this.id = id;
+        this.mimeBase = mimeBase;
+        this.encoderFactory = encoderFactory;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Codec for a client-supplied id; unknown or missing ids fall back to raw PCM
+     */
+    public static AudioCodec fromId(String id) {
+        if (id != null) {
+            for (AudioCodec codec : values()) {
+                if (codec.id.equalsIgnoreCase(id.trim())) {
+                    return codec;
+                }
+            }
+        }
+        return PCM;
+    }
+    
+    /**
+     * New per-session encoder, or null for raw PCM
+     */
+    public AudioEncoder newEncoder() {
+        return encoderFactory != null ? encoderFactory.get() : null;
+    }
+    
+    public String mimeType(int rate) {
+        return mimeBase + ";rate=" + rate;
+    }
+}
@@ -0,0 +1,18 @@
+package com.interview.app.media;
+
+/**
+ * Streaming encoder for 16-bit little-endian mono PCM on its way to the browser. Instances
+ * may keep state between calls and belong to a single session.
+ */
+public interface AudioEncoder {
+    
+    /**
+     * Upper bound of the encoded size of {@code pcmLength} bytes of PCM
+     */
+    int maxEncodedLength(int pcmLength);
+    
+    /**
+     * Encode {@code length} bytes of PCM into {@code out} and return the number of bytes written
+     */
+    int encode(byte[] pcm, int length, byte[] out);
+}
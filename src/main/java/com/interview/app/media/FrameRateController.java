@@ -0,0 +1,140 @@
+package com.interview.app.media;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-session cap on the screen/video frame rate forwarded to Gemini.
+ *
+ * The cap follows AIMD: it is halved whenever a congestion signal is over its limit and
+ * otherwise grows by a fixed step up to the maximum. Signals are the bytes still buffered on
+ * the Gemini socket, the smoothed time spent writing realtime input, and the delay between
+ * the candidate finishing an utterance and the first audio of the reply.
+ */
+public class FrameRateController {
+    
+    private final double minFps;
+    private final double maxFps;
+    private final double increaseStep;
+    private final long latencySloMs;
+    private final long bufferedBytesLimit;
+    private final long sendMicrosLimit;
+    private final long adjustIntervalMs;
+    
+    private double currentFps;
+    private double suggestedFps;
+    private long lastForwardedAt = Long.MIN_VALUE / 2;
+    private long lastAdjustedAt;
+    
+    private long lastMeasuredSpeechAt = Long.MIN_VALUE / 2;
+    private double responseLatencyMs = -1;
+    private long latencySamples;
+    private long lastBufferedBytes;
+    private long lastSendMicros;
+    
+    private long framesOffered;
+    private long framesCapped;
+    private long decreases;
+    private long increases;
+    
+    public FrameRateController(double minFps, double maxFps, double increaseStep, long latencySloMs,
+                               long bufferedBytesLimit, long sendMicrosLimit, long adjustIntervalMs) {
+        this.minFps = minFps;
+        this.maxFps = maxFps;
+        this.increaseStep = increaseStep;
+        this.latencySloMs = latencySloMs;
+        this.bufferedBytesLimit = bufferedBytesLimit;
+        this.sendMicrosLimit = sendMicrosLimit;
+        this.adjustIntervalMs = adjustIntervalMs;
+        this.currentFps = maxFps;
+        this.suggestedFps = suggestion(maxFps);
+        this.lastAdjustedAt = System.currentTimeMillis();
+    }
+    
+    /**
+     * Whether a frame arriving now fits under the current cap
+     */
+    public synchronized boolean allows(long now) {
+        framesOffered++;
+        if (now - lastForwardedAt >= 1000.0 / currentFps) {
+            return true;
+        }
+        framesCapped++;
+        return false;
+    }
+    
+    public synchronized void onForwarded(long now) {
+        lastForwardedAt = now;
+    }
+    
+    /**
+     * Record the first reply audio after the candidate last spoke at {@code speechEndedAt}.
+     * Only the first reply to a given utterance is measured.
+     */
+    public synchronized void recordReply(long speechEndedAt, long now) {
+        if (speechEndedAt <= lastMeasuredSpeechAt || now < speechEndedAt) {
+            return;
+        }
+        lastMeasuredSpeechAt = speechEndedAt;
+        long latency = now - speechEndedAt;
+        responseLatencyMs = responseLatencyMs < 0 ? latency : responseLatencyMs * 0.7 + latency * 0.3;
+        latencySamples++;
+    }
+    
+    /**
+     * Re-evaluate the cap at most once per adjust interval. Returns the new suggested rate for
+     * the client when it changed, or -1 otherwise.
+     */
+    public synchronized double adjust(long now, long bufferedBytes, long sendMicros) {
+        if (now - lastAdjustedAt < adjustIntervalMs) {
+            return -1;
+        }
+        lastAdjustedAt = now;
+        lastBufferedBytes = bufferedBytes;
+        lastSendMicros = sendMicros;
+        
+        boolean congested = bufferedBytes > bufferedBytesLimit
+            || sendMicros > sendMicrosLimit
+            || responseLatencyMs > latencySloMs;
+        if (congested) {
+            currentFps = Math.max(minFps, currentFps / 2);
+            decreases++;
+        } else if (currentFps < maxFps) {
+            currentFps = Math.min(maxFps, currentFps + increaseStep);
+            increases++;
+        }
+        
+        double suggestion = suggestion(currentFps);
+        if (suggestion == suggestedFps) {
+            return -1;
+        }
+        suggestedFps = suggestion;
+        return suggestion;
+    }
+    
+    public synchronized double getCurrentFps() {
+        return currentFps;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("currentFps", currentFps);
+        stats.put("suggestedFps", suggestedFps);
+        stats.put("responseLatencyMs", responseLatencyMs < 0 ? null : Math.round(responseLatencyMs));
+        stats.put("latencySamples", latencySamples);
+        stats.put("bufferedBytes", lastBufferedBytes);
+        stats.put("sendMicros", lastSendMicros);
+        stats.put("framesOffered", framesOffered);
+        stats.put("framesCapped", framesCapped);
+        stats.put("decreases", decreases);
+        stats.put("increases", increases);
+        return stats;
+    }
+    
+    /**
+     * Rate for the client in quarter-frame steps, so small AIMD steps do not flood it with updates
+     */
+    private double suggestion(double fps) {
+        return Math.max(minFps, Math.round(fps * 4) / 4.0);
+    }
+}
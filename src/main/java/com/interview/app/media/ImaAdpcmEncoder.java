@@ -0,0 +1,102 @@
+package com.interview.app.media;
+
+/**
+ * IMA-ADPCM: four bits per sample, about 4:1 against 16-bit PCM.
+ *
+ * The predictor carries over between frames for quality, but every frame starts with a
+ * 4-byte header (predictor as int16 LE, step index, zero) in the layout of a WAV IMA-ADPCM
+ * block header, so a client can decode any frame on its own even after frames were dropped.
+ * Samples follow two per byte, low nibble first.
+ */
+public class ImaAdpcmEncoder implements AudioEncoder {
+    
+    private static final int HEADER_BYTES = 4;
+    
+    private static final int[] INDEX_TABLE = {
+        -1, -1, -1, -1, 2, 4, 6, 8,
+        -1, -1, -1, -1, 2, 4, 6, 8
+    };
+    
+    private static final int[] STEP_TABLE = {
+        7, 8, 9, 10, 11, 12, 13, 14, 16, 17, 19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+        50, 55, 60, 66, 73, 80, 88, 97, 107, 118, 130, 143, 157, 173, 190, 209, 230, 253, 279, 307,
+        337, 371, 408, 449, 494, 544, 598, 658, 724, 796, 876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066,
+        2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358, 5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899,
+        15289, 16818, 18500, 20350, 22385, 24623, 27086, 29794, 32767
+    };
+    
+    private int predictor;
+    private int index;
+    
+    @Override
+    public int maxEncodedLength(int pcmLength) {
+        return HEADER_BYTES + (pcmLength / 2 + 1) / 2;
+    }
+    
+    @Override
+    public int encode(byte[] pcm, int length, byte[] out) {
+        out[0] = (byte) predictor;
+        out[1] = (byte) (predictor >> 8);
+        out[2] = (byte) index;
+        out[3] = 0;
+        
+        int samples = length / 2;
+        int written = HEADER_BYTES;
+        for (int i = 0; i < samples; i++) {
+            int nibble = encodeSample((short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8)));
+            if ((i & 1) == 0) {
+                out[written] = (byte) nibble;
+            } else {
+                out[written++] |= (byte) (nibble << 4);
+            }
+        }
+        if ((samples & 1) != 0) {
+            written++;
+        }
+        return written;
+    }
+    
+    private int encodeSample(int sample) {
+        int step = STEP_TABLE[index];
+        int diff = sample - predictor;
+        int nibble = 0;
+        if (diff < 0) {
+            nibble = 8;
+            diff = -diff;
+        }
+        
+        // Same arithmetic as the decoder, so both sides track the same predictor
+        int delta = step >> 3;
+        if (diff >= step) {
+            nibble |= 4;
+            diff -= step;
+            delta += step;
+        }
+        step >>= 1;
+        if (diff >= step) {
+            nibble |= 2;
+            diff -= step;
+            delta += step;
+        }
+        step >>= 1;
+        if (diff >= step) {
+            nibble |= 1;
+            delta += step;
+        }
+        
+        predictor += (nibble & 8) != 0 ? -delta : delta;
+        if (predictor > Short.MAX_VALUE) {
+            predictor = Short.MAX_VALUE;
+        } else if (predictor < Short.MIN_VALUE) {
+            predictor = Short.MIN_VALUE;
+        }
+        
+        index += INDEX_TABLE[nibble];
+        if (index < 0) {
+            index = 0;
+        } else if (index > 88) {
+            index = 88;
+        }
+        return nibble;
+    }
+}
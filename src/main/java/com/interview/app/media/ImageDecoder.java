@@ -0,0 +1,47 @@
+package com.interview.app.media;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodes client frames with a limit on their pixel count.
+ *
+ * The image header is read before any pixels, so a small payload that claims a huge image
+ * (a decompression bomb) is turned away without allocating the raster.
+ */
+final class ImageDecoder {
+    
+    private ImageDecoder() {
+    }
+    
+    /**
+     * Decoded image, or null if no reader understands the data. Fails for images of more than
+     * maxPixels pixels.
+     */
+    static BufferedImage decode(byte[] data, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IIOException("Image of " + width + "x" + height + " exceeds " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
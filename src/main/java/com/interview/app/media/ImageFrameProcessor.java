@@ -0,0 +1,263 @@
+package com.interview.app.media;
+
+import com.interview.app.dto.MediaChunk;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Decodes, downscales and re-encodes screen-share frames as JPEG before they go to Gemini.
+ *
+ * Work runs on a small fixed pool with a bounded queue, never on STOMP or request threads.
+ * The pool stays on platform threads even in virtual-thread mode: the work is CPU bound and
+ * each worker keeps its own writer, output buffer and scaling canvas between frames. Frames
+ * over the pixel limit are never decoded and go on to Gemini as they came.
+ */
+@Slf4j
+@Component
+public class ImageFrameProcessor {
+    
+    private static final String OUTPUT_MIME_TYPE = "image/jpeg";
+    
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    
+    private final AtomicLong framesProcessed = new AtomicLong();
+    private final AtomicLong framesReencoded = new AtomicLong();
+    private final AtomicLong framesPassedThrough = new AtomicLong();
+    private final AtomicLong framesFailed = new AtomicLong();
+    private final AtomicLong tasksRejected = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong processingNanosTotal = new AtomicLong();
+    private final AtomicLong processingNanosMax = new AtomicLong();
+    
+    @Value("${interview.image.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${interview.image.max-dimension:1280}")
+    private int maxDimension;
+    
+    @Value("${interview.image.max-pixels:16777216}")
+    private long maxPixels;
+    
+    @Value("${interview.image.jpeg-quality:0.7}")
+    private float jpegQuality;
+    
+    @Value("${interview.image.threads:2}")
+    private int threads;
+    
+    @Value("${interview.image.queue-size:32}")
+    private int queueSize;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), runnable -> {
+                Thread thread = new Thread(runnable, "image-frame-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Run a frame task on the image pool. Returns false if the pool is saturated.
+     */
+    public boolean execute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            tasksRejected.incrementAndGet();
+            return false;
+        }
+    }
+    
+    /**
+     * Lazily decoded view of a frame, decoded at most once however many stages read it
+     */
+    public Supplier<BufferedImage> decoder(MediaChunk chunk) {
+        return new Supplier<>() {
+            private boolean decoded;
+            private BufferedImage image;
+            
+            @Override
+            public BufferedImage get() {
+                if (!decoded) {
+                    decoded = true;
+                    image = decode(chunk);
+                }
+                return image;
+            }
+        };
+    }
+    
+    private BufferedImage decode(MediaChunk chunk) {
+        try {
+            return ImageDecoder.decode(Base64.getDecoder().decode(chunk.getData()), maxPixels);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not decode {} frame: {}", chunk.getMimeType(), e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Downscale a decoded frame to the max dimension and re-encode it as JPEG. The original chunk
+     * is returned when the frame could not be decoded or the result would not be smaller.
+     */
+    public MediaChunk process(MediaChunk chunk, BufferedImage image) {
+        long start = System.nanoTime();
+        int inputLength = chunk.getData().length();
+        framesProcessed.incrementAndGet();
+        bytesIn.addAndGet(inputLength);
+        
+        MediaChunk result = chunk;
+        if (image == null) {
+            framesFailed.incrementAndGet();
+        } else {
+            try {
+                String encoded = workers.get().encode(image, maxDimension, jpegQuality);
+                if (encoded.length() < inputLength) {
+                    result = new MediaChunk(OUTPUT_MIME_TYPE, encoded);
+                    framesReencoded.incrementAndGet();
+                } else {
+                    framesPassedThrough.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                framesFailed.incrementAndGet();
+                log.debug("Could not re-encode {} frame: {}", chunk.getMimeType(), e.getMessage());
+            }
+        }
+        
+        bytesOut.addAndGet(result.getData().length());
+        long elapsed = System.nanoTime() - start;
+        processingNanosTotal.addAndGet(elapsed);
+        processingNanosMax.accumulateAndGet(elapsed, Math::max);
+        return result;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long processed = framesProcessed.get();
+        stats.put("enabled", enabled);
+        stats.put("maxDimension", maxDimension);
+        stats.put("maxPixels", maxPixels);
+        stats.put("jpegQuality", jpegQuality);
+        stats.put("framesProcessed", processed);
+        stats.put("framesReencoded", framesReencoded.get());
+        stats.put("framesPassedThrough", framesPassedThrough.get());
+        stats.put("framesFailed", framesFailed.get());
+        stats.put("tasksRejected", tasksRejected.get());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("bytesIn", bytesIn.get());
+        stats.put("bytesOut", bytesOut.get());
+        stats.put("bytesSaved", bytesIn.get() - bytesOut.get());
+        stats.put("avgProcessingMicros", processed > 0 ? TimeUnit.NANOSECONDS.toMicros(processingNanosTotal.get() / processed) : 0);
+        stats.put("maxProcessingMicros", TimeUnit.NANOSECONDS.toMicros(processingNanosMax.get()));
+        return stats;
+    }
+    
+    /**
+     * Per-thread encoder state reused across frames
+     */
+    private static class Worker {
+        private final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        private final ImageWriteParam param = writer.getDefaultWriteParam();
+        private final ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+        private BufferedImage canvas;
+        
+        String encode(BufferedImage image, int maxDimension, float quality) throws IOException {
+            BufferedImage target = scale(image, maxDimension);
+            
+            buffer.reset();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(buffer)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(target, null, null), param);
+            } finally {
+                writer.reset();
+            }
+            
+            ByteBuffer base64 = Base64.getEncoder().encode(ByteBuffer.wrap(buffer.buffer(), 0, buffer.size()));
+            return new String(base64.array(), 0, base64.limit(), StandardCharsets.ISO_8859_1);
+        }
+        
+        /**
+         * Draw the frame onto an opaque RGB canvas (JPEG has no alpha), shrinking it so the
+         * longer side fits the max dimension. The canvas is kept while the size stays the same.
+         */
+        private BufferedImage scale(BufferedImage image, int maxDimension) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            double factor = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+            int targetWidth = Math.max(1, (int) Math.round(width * factor));
+            int targetHeight = Math.max(1, (int) Math.round(height * factor));
+            
+            if (factor == 1.0 && image.getType() == BufferedImage.TYPE_INT_RGB) {
+                return image;
+            }
+            if (canvas == null || canvas.getWidth() != targetWidth || canvas.getHeight() != targetHeight) {
+                canvas = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+            }
+            
+            Graphics2D graphics = canvas.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+                graphics.drawImage(image, 0, 0, targetWidth, targetHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            return canvas;
+        }
+    }
+    
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream() {
+            super(256 * 1024);
+        }
+        
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
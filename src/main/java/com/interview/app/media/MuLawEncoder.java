@@ -0,0 +1,43 @@
+package com.interview.app.media;
+
+/**
+ * G.711 μ-law: one byte per sample, 2:1 against 16-bit PCM. Stateless, so frames decode
+ * independently.
+ */
+public class MuLawEncoder implements AudioEncoder {
+    
+    private static final int BIAS = 0x84;
+    private static final int CLIP = 32635;
+    
+    @Override
+    public int maxEncodedLength(int pcmLength) {
+        return pcmLength / 2;
+    }
+    
+    @Override
+    public int encode(byte[] pcm, int length, byte[] out) {
+        int samples = length / 2;
+        for (int i = 0; i < samples; i++) {
+            out[i] = encodeSample((short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8)));
+        }
+        return samples;
+    }
+    
+    static byte encodeSample(int sample) {
+        int sign = (sample >> 8) & 0x80;
+        if (sign != 0) {
+            sample = -sample;
+        }
+        if (sample > CLIP) {
+            sample = CLIP;
+        }
+        sample += BIAS;
+        
+        int exponent = 7;
+        for (int mask = 0x4000; (sample & mask) == 0 && exponent > 0; mask >>= 1) {
+            exponent--;
+        }
+        int mantissa = (sample >> (exponent + 3)) & 0x0F;
+        return (byte) ~(sign | (exponent << 4) | mantissa);
+    }
+}
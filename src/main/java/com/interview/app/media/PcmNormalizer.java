@@ -0,0 +1,293 @@
+package com.interview.app.media;
+
+import com.interview.app.dto.MediaChunk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session converter from the PCM the browser declares (any rate, any channel count) to
+ * the 16-bit little-endian mono PCM at the target rate that Gemini Live expects.
+ *
+ * Channels are averaged, then a polyphase FIR resampler converts by the rational factor
+ * target/source. Filter history carries over between chunks so chunk boundaries are seamless.
+ * Working buffers grow to the largest chunk seen and are reused; coefficient tables are shared
+ * by every session using the same conversion. The declared format comes from the client, so
+ * rates, channel counts and conversion factors outside sane bounds are rejected.
+ */
+public class PcmNormalizer {
+    
+    private static final int MIN_RATE = 8000;
+    private static final int MAX_RATE = 96000;
+    private static final int MAX_CHANNELS = 8;
+    // Real rates need at most 640 phases (11025 Hz to 16 kHz); an odd rate such as 8001 Hz would need 16000
+    private static final int MAX_INTERPOLATION = 1024;
+    private static final int MAX_CACHED_TABLES = 32;
+    
+    private static final Map<Long, float[]> COEFFICIENTS = new ConcurrentHashMap<>();
+    
+    private final int targetRate;
+    private final int tapsPerPhase;
+    private final String targetMimeType;
+    
+    private String sourceMimeType;
+    private int sourceRate;
+    private int sourceChannels;
+    private int interpolation;
+    private int decimation;
+    private float[] coefficients;
+    private long nextPosition;
+    
+    private byte[] input = new byte[0];
+    private float[] samples = new float[0];
+    private byte[] output = new byte[0];
+    private int outputLength;
+    
+    private long chunksIn;
+    private long chunksConverted;
+    private long chunksRejected;
+    private long bytesIn;
+    private long bytesOut;
+    
+    public PcmNormalizer(int targetRate, int tapsPerPhase) {
+        this.targetRate = targetRate;
+        this.tapsPerPhase = tapsPerPhase;
+        this.targetMimeType = "audio/pcm;rate=" + targetRate;
+    }
+    
+    /**
+     * Convert one chunk. The returned chunk is the input itself when it is already mono at the
+     * target rate. Either way its decoded PCM is available from {@link #getOutput()} until the
+     * next call. Returns null, dropping the chunk, when its declared format is not supported.
+     */
+    public synchronized MediaChunk normalize(MediaChunk chunk) {
+        if (!configure(chunk.getMimeType())) {
+            chunksRejected++;
+            return null;
+        }
+        String data = chunk.getData();
+        int length = decode(data);
+        chunksIn++;
+        bytesIn += length;
+        
+        if (sourceRate == targetRate && sourceChannels == 1) {
+            byte[] swap = output;
+            output = input;
+            input = swap;
+            outputLength = length;
+            bytesOut += length;
+            return chunk;
+        }
+        
+        int frames = downmix(length);
+        resample(frames);
+        chunksConverted++;
+        bytesOut += outputLength;
+        
+        String encoded = new String(Base64.getEncoder().encode(ByteBuffer.wrap(output, 0, outputLength)).array(),
+            StandardCharsets.ISO_8859_1);
+        return new MediaChunk(targetMimeType, encoded);
+    }
+    
+    /**
+     * 16-bit little-endian mono PCM of the last normalized chunk
+     */
+    public synchronized byte[] getOutput() {
+        return output;
+    }
+    
+    public synchronized int getOutputLength() {
+        return outputLength;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sourceRate", sourceRate);
+        stats.put("sourceChannels", sourceChannels);
+        stats.put("targetRate", targetRate);
+        stats.put("chunksIn", chunksIn);
+        stats.put("chunksConverted", chunksConverted);
+        stats.put("chunksRejected", chunksRejected);
+        stats.put("bytesIn", bytesIn);
+        stats.put("bytesOut", bytesOut);
+        stats.put("reductionRatio", bytesOut > 0 ? (double) bytesIn / bytesOut : 0.0);
+        return stats;
+    }
+    
+    /**
+     * Decode base64 into the reusable input buffer and return the number of bytes
+     */
+    private int decode(String data) {
+        byte[] encoded = data.getBytes(StandardCharsets.ISO_8859_1);
+        int maxLength = encoded.length / 4 * 3;
+        if (input.length < maxLength) {
+            input = new byte[maxLength];
+        }
+        return Base64.getDecoder().decode(encoded, input);
+    }
+    
+    /**
+     * Read rate and channels from a mime type such as {@code audio/pcm;rate=48000;channels=2}.
+     * A format change resets the resampler. Returns false, leaving the current format in place,
+     * for a format that cannot be converted.
+     */
+    private boolean configure(String mimeType) {
+        if (mimeType.equals(sourceMimeType)) {
+            return true;
+        }
+        int rate = targetRate;
+        int channels = 1;
+        for (String parameter : mimeType.split(";")) {
+            String[] pair = parameter.trim().split("=", 2);
+            if (pair.length != 2) {
+                continue;
+            }
+            try {
+                if (pair[0].equalsIgnoreCase("rate")) {
+                    rate = Integer.parseInt(pair[1].trim());
+                } else if (pair[0].equalsIgnoreCase("channels")) {
+                    channels = Integer.parseInt(pair[1].trim());
+                }
+            } catch (NumberFormatException ignored) {
+                // Keep the default for a malformed parameter
+            }
+        }
+        if (rate < MIN_RATE || rate > MAX_RATE || channels < 1 || channels > MAX_CHANNELS) {
+            return false;
+        }
+        int divisor = gcd(targetRate, rate);
+        if (targetRate / divisor > MAX_INTERPOLATION) {
+            return false;
+        }
+        
+        sourceMimeType = mimeType;
+        sourceRate = rate;
+        sourceChannels = channels;
+        interpolation = targetRate / divisor;
+        decimation = rate / divisor;
+        long key = ((long) interpolation << 32) | decimation;
+        float[] table = COEFFICIENTS.get(key);
+        if (table == null) {
+            table = design(interpolation, decimation, tapsPerPhase);
+            // Past the cap a rare conversion keeps its table to itself
+            if (COEFFICIENTS.size() < MAX_CACHED_TABLES) {
+                COEFFICIENTS.putIfAbsent(key, table);
+            }
+        }
+        coefficients = table;
+        
+        // Start with silent history
+        int history = tapsPerPhase - 1;
+        if (samples.length < history) {
+            samples = new float[history];
+        }
+        Arrays.fill(samples, 0, history, 0f);
+        nextPosition = 0;
+        return true;
+    }
+    
+    /**
+     * Average interleaved channels into the sample buffer after the filter history.
+     * Returns the number of mono frames.
+     */
+    private int downmix(int length) {
+        int history = tapsPerPhase - 1;
+        int frames = length / (2 * sourceChannels);
+        if (samples.length < history + frames) {
+            float[] grown = new float[history + frames];
+            System.arraycopy(samples, 0, grown, 0, history);
+            samples = grown;
+        }
+        
+        float scale = 1f / sourceChannels;
+        int offset = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int sum = 0;
+            for (int channel = 0; channel < sourceChannels; channel++) {
+                sum += (short) ((input[offset] & 0xFF) | (input[offset + 1] << 8));
+                offset += 2;
+            }
+            samples[history + frame] = sum * scale;
+        }
+        return frames;
+    }
+    
+    /**
+     * Polyphase resampling of the buffered frames into the output buffer. Output sample m sits at
+     * position m * decimation on the upsampled timeline; its phase selects the filter branch.
+     */
+    private void resample(int frames) {
+        int history = tapsPerPhase - 1;
+        long end = (long) frames * interpolation;
+        int maxOutput = (int) ((end - nextPosition + decimation - 1) / decimation) + 1;
+        if (output.length < maxOutput * 2) {
+            output = new byte[maxOutput * 2];
+        }
+        
+        int written = 0;
+        long position = nextPosition;
+        while (position < end) {
+            int frame = (int) (position / interpolation);
+            int phase = (int) (position % interpolation);
+            int base = phase * tapsPerPhase;
+            int newest = history + frame;
+            
+            float sum = 0f;
+            for (int tap = 0; tap < tapsPerPhase; tap++) {
+                sum += coefficients[base + tap] * samples[newest - tap];
+            }
+            
+            int sample = Math.round(sum);
+            if (sample > Short.MAX_VALUE) {
+                sample = Short.MAX_VALUE;
+            } else if (sample < Short.MIN_VALUE) {
+                sample = Short.MIN_VALUE;
+            }
+            output[written++] = (byte) sample;
+            output[written++] = (byte) (sample >> 8);
+            position += decimation;
+        }
+        nextPosition = position - end;
+        outputLength = written;
+        
+        // Keep the newest frames as history for the next chunk
+        System.arraycopy(samples, frames, samples, 0, history);
+    }
+    
+    /**
+     * Windowed-sinc low-pass for the upsampled rate, cut off below the lower of the two Nyquist
+     * frequencies and stored phase by phase: coefficient [phase * taps + tap] is prototype tap
+     * {@code phase + tap * interpolation}.
+     */
+    private static float[] design(int interpolation, int decimation, int tapsPerPhase) {
+        int length = interpolation * tapsPerPhase;
+        double cutoff = 0.9 * 0.5 / Math.max(interpolation, decimation);
+        double center = (length - 1) / 2.0;
+        
+        float[] table = new float[length];
+        for (int phase = 0; phase < interpolation; phase++) {
+            for (int tap = 0; tap < tapsPerPhase; tap++) {
+                int k = phase + tap * interpolation;
+                double x = k - center;
+                double sinc = x == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * x) / (Math.PI * x);
+                double window = 0.54 - 0.46 * Math.cos(2 * Math.PI * k / (length - 1));
+                table[phase * tapsPerPhase + tap] = (float) (interpolation * sinc * window);
+            }
+        }
+        return table;
+    }
+    
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,182 @@
+package com.interview.app.media;
+
+import lombok.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-session packer for model audio on its way to the browser.
+ *
+ * Gemini streams many small PCM parts; they are concatenated and cut into fixed-duration
+ * frames, each numbered and stamped with its start time in the session's response stream so
+ * the client can order and schedule playback. A partial frame is emitted when the turn ends
+ * and dropped when the model is interrupted. Frames are encoded with the session's downstream
+ * codec just before they are emitted.
+ */
+public class ResponseAudioAggregator {
+    
+    private static final int DEFAULT_RATE = 24000;
+    private static final int MIN_RATE = 8000;
+    private static final int MAX_RATE = 96000;
+    
+    private final long frameMs;
+    private final AudioCodec codec;
+    private final AudioEncoder encoder;
+    
+    private String mimeType;
+    private String frameMimeType;
+    private int rate = DEFAULT_RATE;
+    private int frameBytes;
+    private byte[] scratch = new byte[0];
+    private byte[] pending = new byte[0];
+    private int pendingLength;
+    private byte[] encoded = new byte[0];
+    
+    private long nextSequence;
+    private long emittedSamples;
+    
+    private long partsIn;
+    private long framesOut;
+    private long bytesDiscarded;
+    private long pcmBytesOut;
+    private long encodedBytesOut;
+    
+    public ResponseAudioAggregator(long frameMs, AudioCodec codec) {
+        this.frameMs = frameMs;
+        this.codec = codec;
+        this.encoder = codec.newEncoder();
+        this.frameBytes = frameBytes(DEFAULT_RATE);
+    }
+    
+    /**
+     * Add one model audio part and return the frames it completed, in order
+     */
+    public synchronized List<Frame> append(String partMimeType, String base64Data) {
+        List<Frame> frames = new ArrayList<>(2);
+        partsIn++;
+        
+        if (!partMimeType.equals(mimeType)) {
+            // Never mix sample rates in one frame
+            if (pendingLength > 0) {
+                frames.add(emit(pendingLength));
+            }
+            mimeType = partMimeType;
+            rate = parseRate(partMimeType);
+            frameBytes = frameBytes(rate);
+            frameMimeType = encoder != null ? codec.mimeType(rate) : partMimeType;
+        }
+        
+        byte[] base64 = base64Data.getBytes(StandardCharsets.ISO_8859_1);
+        if (scratch.length < base64.length / 4 * 3) {
+            scratch = new byte[base64.length / 4 * 3];
+        }
+        int length = Base64.getDecoder().decode(base64, scratch);
+        if (pending.length < pendingLength + length) {
+            byte[] grown = new byte[Math.max(pendingLength + length, 2 * frameBytes)];
+            System.arraycopy(pending, 0, grown, 0, pendingLength);
+            pending = grown;
+        }
+        System.arraycopy(scratch, 0, pending, pendingLength, length);
+        pendingLength += length;
+        
+        while (pendingLength >= frameBytes) {
+            frames.add(emit(frameBytes));
+        }
+        return frames;
+    }
+    
+    /**
+     * Emit whatever is buffered as a short final frame, or null if nothing is buffered
+     */
+    public synchronized Frame flush() {
+        return pendingLength > 0 ? emit(pendingLength) : null;
+    }
+    
+    /**
+     * Drop buffered audio that has not been sent; returns the number of bytes dropped
+     */
+    public synchronized int discard() {
+        int dropped = pendingLength;
+        bytesDiscarded += dropped;
+        pendingLength = 0;
+        return dropped;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("frameMs", frameMs);
+        stats.put("codec", codec.getId());
+        stats.put("pcmBytesOut", pcmBytesOut);
+        stats.put("encodedBytesOut", encodedBytesOut);
+        stats.put("partsIn", partsIn);
+        stats.put("framesOut", framesOut);
+        stats.put("partsPerFrame", framesOut > 0 ? (double) partsIn / framesOut : 0.0);
+        stats.put("pendingBytes", pendingLength);
+        stats.put("bytesDiscarded", bytesDiscarded);
+        return stats;
+    }
+    
+    private Frame emit(int length) {
+        ByteBuffer payload;
+        if (encoder == null) {
+            payload = ByteBuffer.wrap(pending, 0, length);
+        } else {
+            int maxLength = encoder.maxEncodedLength(length);
+            if (encoded.length < maxLength) {
+                encoded = new byte[Math.max(maxLength, encoder.maxEncodedLength(frameBytes))];
+            }
+            payload = ByteBuffer.wrap(encoded, 0, encoder.encode(pending, length, encoded));
+        }
+        pcmBytesOut += length;
+        encodedBytesOut += payload.remaining();
+        
+        ByteBuffer base64 = Base64.getEncoder().encode(payload);
+        String data = new String(base64.array(), 0, base64.limit(), StandardCharsets.ISO_8859_1);
+        
+        Frame frame = new Frame(frameMimeType, data, nextSequence++, emittedSamples * 1000 / rate);
+        emittedSamples += length / 2;
+        framesOut++;
+        
+        pendingLength -= length;
+        System.arraycopy(pending, length, pending, 0, pendingLength);
+        return frame;
+    }
+    
+    private int frameBytes(int sampleRate) {
+        // At least one sample, so a tiny frame length cannot stall append in an empty-frame loop
+        return Math.max(1, (int) (sampleRate * frameMs / 1000)) * 2;
+    }
+    
+    /**
+     * The rate named in the mime type, or the Live API's output rate when it names none or one
+     * outside the range PCM audio is sent at
+     */
+    private static int parseRate(String mimeType) {
+        for (String parameter : mimeType.split(";")) {
+            String[] pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].equalsIgnoreCase("rate")) {
+                try {
+                    int rate = Integer.parseInt(pair[1].trim());
+                    return rate >= MIN_RATE && rate <= MAX_RATE ? rate : DEFAULT_RATE;
+                } catch (NumberFormatException ignored) {
+                    // Fall back to the Live API's output rate
+                }
+            }
+        }
+        return DEFAULT_RATE;
+    }
+    
+    @Value
+    public static class Frame {
+        String mimeType;
+        String data;
+        long sequence;
+        long mediaTimestamp;
+    }
+}
@@ -0,0 +1,159 @@
+package com.interview.app.media;
+
+import com.interview.app.dto.MediaChunk;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-session filter that skips screen/video frames which have not meaningfully changed.
+ *
+ * An identical payload is caught by a hash of the encoded data without decoding. Otherwise
+ * the frame is reduced to a grid of average luminance cells and compared with the last frame
+ * sent; it is skipped when no cell moved past the threshold. A cell-level comparison, rather
+ * than a whole-frame average, keeps small edits such as a typed line of code visible.
+ * A frame is always sent once the last one is older than the maximum staleness. Frames over
+ * the pixel limit are not decoded and always sent, like any other frame that cannot be read.
+ */
+@Slf4j
+public class ScreenFrameFilter {
+    
+    private final int gridSize;
+    private final int cellThreshold;
+    private final int minChangedCells;
+    private final long maxStalenessMs;
+    private final long maxPixels;
+    
+    private int lastHash;
+    private int lastLength = -1;
+    private int[] lastCells;
+    private long lastSentAt = Long.MIN_VALUE / 2;
+    
+    private long framesIn;
+    private long framesSent;
+    private long skippedIdentical;
+    private long skippedUnchanged;
+    private long bytesIn;
+    private long bytesSkipped;
+    
+    public ScreenFrameFilter(int gridSize, int cellThreshold, int minChangedCells, long maxStalenessMs,
+                             long maxPixels) {
+        this.gridSize = gridSize;
+        this.cellThreshold = cellThreshold;
+        this.minChangedCells = minChangedCells;
+        this.maxStalenessMs = maxStalenessMs;
+        this.maxPixels = maxPixels;
+    }
+    
+    public static boolean isImage(MediaChunk chunk) {
+        return chunk.getMimeType() != null && chunk.getMimeType().startsWith("image/");
+    }
+    
+    public boolean shouldSend(MediaChunk chunk) {
+        return shouldSend(chunk, () -> decode(chunk.getData()));
+    }
+    
+    /**
+     * Same as {@link #shouldSend(MediaChunk)}, taking the decoded frame from the caller so it
+     * is only decoded once per pipeline. The supplier is not called for identical payloads.
+     */
+    public synchronized boolean shouldSend(MediaChunk chunk, Supplier<BufferedImage> decodedFrame) {
+        String data = chunk.getData();
+        long now = System.currentTimeMillis();
+        boolean stale = now - lastSentAt >= maxStalenessMs;
+        
+        framesIn++;
+        bytesIn += data.length();
+        
+        int hash = data.hashCode();
+        if (!stale && data.length() == lastLength && hash == lastHash) {
+            skippedIdentical++;
+            bytesSkipped += data.length();
+            return false;
+        }
+        
+        int[] cells = luminanceGrid(decodedFrame.get());
+        if (!stale && cells != null && lastCells != null && changedCells(cells, lastCells) < minChangedCells) {
+            skippedUnchanged++;
+            bytesSkipped += data.length();
+            return false;
+        }
+        
+        lastHash = hash;
+        lastLength = data.length();
+        lastCells = cells;
+        lastSentAt = now;
+        framesSent++;
+        return true;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("framesIn", framesIn);
+        stats.put("framesSent", framesSent);
+        stats.put("skippedIdentical", skippedIdentical);
+        stats.put("skippedUnchanged", skippedUnchanged);
+        stats.put("bytesIn", bytesIn);
+        stats.put("bytesSkipped", bytesSkipped);
+        stats.put("skipRatio", bytesIn > 0 ? (double) bytesSkipped / bytesIn : 0.0);
+        return stats;
+    }
+    
+    private int changedCells(int[] current, int[] previous) {
+        int changed = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (Math.abs(current[i] - previous[i]) > cellThreshold) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+    
+    private BufferedImage decode(String base64Data) {
+        try {
+            return ImageDecoder.decode(Base64.getDecoder().decode(base64Data), maxPixels);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Could not decode screen frame for change detection: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Average luminance (0-255) of each cell of a gridSize x gridSize grid, or null if the
+     * frame could not be decoded
+     */
+    private int[] luminanceGrid(BufferedImage image) {
+        if (image == null) {
+            return null;
+        }
+        
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long[] sums = new long[gridSize * gridSize];
+        int[] counts = new int[gridSize * gridSize];
+        int[] row = new int[width];
+        
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = (int) ((long) y * gridSize / height) * gridSize;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int luma = (((rgb >> 16) & 0xFF) * 77 + ((rgb >> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+                int cell = cellRow + (int) ((long) x * gridSize / width);
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+        
+        int[] cells = new int[gridSize * gridSize];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = counts[i] > 0 ? (int) (sums[i] / counts[i]) : 0;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,138 @@
+package com.interview.app.media;
+
+import com.interview.app.dto.MediaChunk;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-session energy / zero-crossing voice activity detector for 16-bit little-endian PCM.
+ *
+ * Voiced frames are forwarded. The last silent frame before an onset is forwarded with it so
+ * the start of speech is not clipped, and forwarding continues for a hangover window after
+ * the last voiced frame so trailing syllables and the end-of-turn silence reach Gemini.
+ * During long silences a single frame is let through every keep-alive interval.
+ */
+public class VoiceActivityDetector {
+    
+    private final double energyThreshold;
+    private final double maxZeroCrossingRate;
+    private final long hangoverMs;
+    private final long keepAliveMs;
+    
+    private long lastVoicedAt = Long.MIN_VALUE / 2;
+    private long lastForwardedAt = Long.MIN_VALUE / 2;
+    private MediaChunk preRoll;
+    private int preRollLength;
+    
+    private long framesIn;
+    private long framesForwarded;
+    private long keepAlivesForwarded;
+    private long bytesIn;
+    private long bytesSuppressed;
+    
+    public VoiceActivityDetector(double energyThreshold, double maxZeroCrossingRate, long hangoverMs, long keepAliveMs) {
+        this.energyThreshold = energyThreshold;
+        this.maxZeroCrossingRate = maxZeroCrossingRate;
+        this.hangoverMs = hangoverMs;
+        this.keepAliveMs = keepAliveMs;
+    }
+    
+    public static boolean isPcm(MediaChunk chunk) {
+        return chunk.getMimeType() != null && chunk.getMimeType().startsWith("audio/pcm");
+    }
+    
+    /**
+     * Decide which chunks to forward for one inbound PCM chunk, in send order
+     */
+    public synchronized List<MediaChunk> filter(MediaChunk chunk) {
+        byte[] pcm = Base64.getDecoder().decode(chunk.getData());
+        return filter(chunk, pcm, pcm.length, System.currentTimeMillis());
+    }
+    
+    /**
+     * Same as {@link #filter(MediaChunk)} for a chunk whose PCM is already decoded
+     */
+    public synchronized List<MediaChunk> filter(MediaChunk chunk, byte[] pcm, int length, long now) {
+        framesIn++;
+        bytesIn += length;
+        
+        List<MediaChunk> forward = new ArrayList<>(2);
+        if (isVoiced(pcm, length)) {
+            if (now - lastVoicedAt > hangoverMs && preRoll != null) {
+                forward.add(preRoll);
+                framesForwarded++;
+                bytesSuppressed -= preRollLength;
+            }
+            lastVoicedAt = now;
+            preRoll = null;
+            forward.add(chunk);
+        } else if (now - lastVoicedAt <= hangoverMs) {
+            forward.add(chunk);
+        } else if (now - lastForwardedAt >= keepAliveMs) {
+            keepAlivesForwarded++;
+            // The held chunk is older than the one going out now, so it must not be replayed later
+            preRoll = null;
+            forward.add(chunk);
+        } else {
+            bytesSuppressed += length;
+            preRoll = chunk;
+            preRollLength = length;
+            return forward;
+        }
+        
+        lastForwardedAt = now;
+        framesForwarded++;
+        return forward;
+    }
+    
+    /**
+     * True if the speaker is inside a voiced segment or its hangover
+     */
+    public synchronized boolean isSpeaking(long now) {
+        return now - lastVoicedAt <= hangoverMs;
+    }
+    
+    public synchronized long getLastVoicedAt() {
+        return lastVoicedAt;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("framesIn", framesIn);
+        stats.put("framesForwarded", framesForwarded);
+        stats.put("keepAlivesForwarded", keepAlivesForwarded);
+        stats.put("bytesIn", bytesIn);
+        stats.put("bytesSuppressed", bytesSuppressed);
+        stats.put("suppressionRatio", bytesIn > 0 ? (double) bytesSuppressed / bytesIn : 0.0);
+        return stats;
+    }
+    
+    private boolean isVoiced(byte[] pcm, int length) {
+        int samples = length / 2;
+        if (samples == 0) {
+            return false;
+        }
+        
+        long sumSquares = 0;
+        int zeroCrossings = 0;
+        int previous = 0;
+        for (int i = 0; i < samples; i++) {
+            int sample = (short) ((pcm[2 * i] & 0xFF) | (pcm[2 * i + 1] << 8));
+            sumSquares += (long) sample * sample;
+            if (i > 0 && (sample >= 0) != (previous >= 0)) {
+                zeroCrossings++;
+            }
+            previous = sample;
+        }
+        
+        double rms = Math.sqrt((double) sumSquares / samples);
+        double zeroCrossingRate = (double) zeroCrossings / samples;
+        
+        // Broadband hiss crosses zero far more often than speech at the same energy
+        return rms >= energyThreshold && (zeroCrossingRate <= maxZeroCrossingRate || rms >= 4 * energyThreshold);
+    }
+}
@@ -69,6 +69,7 @@ public class Candidate {
         private InterviewLevel level;
         private LocalDateTime startedAt;
         private LocalDateTime completedAt;
+        private List<String> transcript; // Model text of each turn, saved when the session ends
         
         public enum InterviewType {
             PROBLEM_SOLVING, LLD, HLD, BEHAVIORAL, HR
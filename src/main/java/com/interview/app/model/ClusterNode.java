@@ -0,0 +1,32 @@
+package com.interview.app.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+
+/**
+ * Heartbeat of a backend node, for session ownership and placement
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "cluster_nodes")
+public class ClusterNode {
+    
+    @Id
+    private String nodeId;
+    
+    private String url;
+    
+    private boolean leaving;
+    
+    private LocalDateTime startedAt;
+    
+    @Indexed
+    private LocalDateTime lastHeartbeatAt;
+}
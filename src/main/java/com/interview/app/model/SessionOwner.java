@@ -0,0 +1,34 @@
+package com.interview.app.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cluster node that owns a live interview session
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "session_owners")
+public class SessionOwner {
+    
+    @Id
+    private String sessionId;
+    
+    @Indexed
+    private String nodeId;
+    
+    private String nodeUrl;
+    
+    private String userId;
+    
+    // Records left behind by a node that died are dropped after a day
+    @Indexed(expireAfter = "1d")
+    private LocalDateTime createdAt;
+}
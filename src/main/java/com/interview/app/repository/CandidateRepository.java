@@ -3,8 +3,10 @@ package com.interview.app.repository;
 import com.interview.app.model.Candidate;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,5 +17,14 @@ public interface CandidateRepository extends MongoRepository<Candidate, String>
     
     boolean existsByEmail(String email);
     
+    // Served by scheduled_interviews_idx
+    @Query("{ 'interviewRounds': { $elemMatch: { 'scheduledAt': { $gte: ?0, $lte: ?1 }, 'status': ?2 } } }")
+    List<Candidate> findByRoundScheduledBetween(LocalDateTime from, LocalDateTime to,
+                                                Candidate.InterviewRound.InterviewStatus status);
+    
+    @Query("{ 'interviewRounds.interviewId': ?0 }")
+    @Update("{ '$set': { 'interviewRounds.$.transcript': ?1 } }")
+    long saveRoundTranscript(String interviewId, List<String> transcript);
+    
     // Removed individual search methods - now using unified search in service layer
 }
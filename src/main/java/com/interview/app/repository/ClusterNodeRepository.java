@@ -0,0 +1,14 @@
+package com.interview.app.repository;
+
+import com.interview.app.model.ClusterNode;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends MongoRepository<ClusterNode, String> {
+    
+    List<ClusterNode> findByLastHeartbeatAtAfter(LocalDateTime since);
+}
@@ -0,0 +1,11 @@
+package com.interview.app.repository;
+
+import com.interview.app.model.SessionOwner;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionOwnerRepository extends MongoRepository<SessionOwner, String> {
+    
+    long countByNodeId(String nodeId);
+}
@@ -4,6 +4,7 @@ import com.interview.app.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -50,9 +51,15 @@ public class SecurityConfig {
                 .requestMatchers("/ws/**").permitAll() // WebSocket endpoint
                 .requestMatchers("/interview/health").permitAll()
                 .requestMatchers("/interview/config").permitAll()
+                .requestMatchers("/actuator/health/**").permitAll() // Liveness and readiness probes
+                .requestMatchers("/internal/cluster/**").permitAll() // Node-to-node, checked against the cluster token
                 .requestMatchers("/media/**").authenticated() // Media endpoints require authentication
                 // Admin endpoints
                 .requestMatchers("/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/drain").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/interview/diagnostic/**").hasRole("ADMIN")
+                .requestMatchers("/interview/diagnostic/sessions", "/interview/diagnostic/lanes",
+                    "/interview/diagnostic/outbound", "/interview/diagnostic/rate-limits").hasRole("ADMIN") // Per-session and per-user data
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             );
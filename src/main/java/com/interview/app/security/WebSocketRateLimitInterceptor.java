@@ -0,0 +1,51 @@
+package com.interview.app.security;
+
+import com.interview.app.service.InboundRateLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Applies the inbound rate limits to interview messages sent over STOMP, keyed by the
+ * authenticated user and the interview session the message names. Start and end requests are
+ * not limited. A shed frame is dropped before it reaches the message handlers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketRateLimitInterceptor implements ChannelInterceptor {
+    
+    private static final String MESSAGE_DESTINATION = "/app/interview/message";
+    
+    private final InboundRateLimiter rateLimiter;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !rateLimiter.isEnabled()) {
+            return message;
+        }
+        if (!StompCommand.SEND.equals(accessor.getCommand()) || !MESSAGE_DESTINATION.equals(accessor.getDestination())
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        
+        // Same session key as MediaController, so both paths draw on one budget
+        Principal user = accessor.getUser();
+        String sessionId = rateLimiter.sessionIdOf(payload);
+        InboundRateLimiter.MediaClass mediaClass = rateLimiter.classify(payload);
+        if (!rateLimiter.acquire(user != null ? user.getName() : null, sessionId, mediaClass, payload.length)) {
+            log.debug("Shed {} byte {} frame from session: {}", payload.length, mediaClass, sessionId);
+            return null;
+        }
+        return message;
+    }
+}
@@ -0,0 +1,340 @@
+package com.interview.app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent interview sessions per node and per Gemini API key.
+ *
+ * A start within both budgets is admitted at once. Otherwise it waits in a FIFO waiting room
+ * and is admitted in arrival order as sessions end; nobody is admitted past a waiting start.
+ * Waiting users get their position and an estimated wait on {@code /user/queue/waiting-room}
+ * whenever the queue moves. The estimate assumes sessions last as long as recent ones did.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionController {
+    
+    public static final String WAITING_ROOM_DESTINATION = "/queue/waiting-room";
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    
+    private final Deque<Ticket> waiting = new ArrayDeque<>();
+    private final Map<String, Integer> activePerKey = new HashMap<>();
+    private int active;
+    private double averageSessionMs;
+    private boolean closed;
+    
+    private final AtomicLong admittedImmediately = new AtomicLong();
+    private final AtomicLong admittedFromQueue = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong waitNanosTotal = new AtomicLong();
+    private final AtomicLong waitNanosMax = new AtomicLong();
+    
+    @Value("${interview.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${interview.admission.max-sessions-per-node:50}")
+    private int maxSessionsPerNode;
+    
+    @Value("${interview.admission.max-sessions-per-key:50}")
+    private int maxSessionsPerKey;
+    
+    @Value("${interview.admission.max-waiting:200}")
+    private int maxWaiting;
+    
+    @Value("${interview.admission.max-wait-ms:600000}")
+    private long maxWaitMs;
+    
+    @Value("${interview.admission.initial-session-estimate-ms:1800000}")
+    private long initialSessionEstimateMs;
+    
+    /**
+     * Ask for a session slot on the given API key. The future completes with a permit once
+     * admitted; it fails when the waiting room is full or the wait times out.
+     */
+    public CompletableFuture<Permit> admit(String userId, String userName, String apiKeyId) {
+        return admit(userId, userName, apiKeyId, null);
+    }
+    
+    /**
+     * Same as {@link #admit(String, String, String)} for a start made over a STOMP session; the
+     * ticket is dropped from the waiting room if that session disconnects, see {@link #cancel}
+     */
+    public CompletableFuture<Permit> admit(String userId, String userName, String apiKeyId, String clientSessionId) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(new Permit(apiKeyId, false));
+        }
+        
+        Ticket ticket;
+        int position;
+        long etaMs;
+        synchronized (this) {
+            if (closed) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("This server is shutting down, please try again"));
+            }
+            if (waiting.isEmpty() && hasCapacity(apiKeyId)) {
+                admittedImmediately.incrementAndGet();
+                return CompletableFuture.completedFuture(acquire(apiKeyId));
+            }
+            if (waiting.size() >= maxWaiting) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Interview waiting room is full, please try again later"));
+            }
+            ticket = new Ticket(userId, userName, apiKeyId, clientSessionId);
+            waiting.addLast(ticket);
+            position = waiting.size();
+            etaMs = estimateWait(position);
+        }
+        log.info("No interview slot for user: {}, waiting at position {}", userId, position);
+        
+        ticket.future.orTimeout(maxWaitMs, TimeUnit.MILLISECONDS).whenComplete((permit, error) -> {
+            if (error != null && leave(ticket)) {
+                timedOut.incrementAndGet();
+                log.warn("User {} gave up waiting for an interview slot", userId);
+                publishPositions();
+            }
+        });
+        // Joining at the tail moves nobody else
+        notifyUser(ticket, position, etaMs);
+        return ticket.future;
+    }
+    
+    /**
+     * Take a slot on the key only if a session could start right now without anyone waiting;
+     * null otherwise. For work done ahead of demand, such as pre-warmed sessions.
+     */
+    public synchronized Permit tryAcquire(String apiKeyId) {
+        if (closed) {
+            return null;
+        }
+        if (!enabled) {
+            return new Permit(apiKeyId, false);
+        }
+        return waiting.isEmpty() && hasCapacity(apiKeyId) ? acquire(apiKeyId) : null;
+    }
+    
+    /**
+     * Stop admitting sessions, for a drain. Everyone in the waiting room is turned away so they
+     * can retry against another node; sessions already admitted are unaffected.
+     */
+    public void close() {
+        List<Ticket> turnedAway;
+        synchronized (this) {
+            closed = true;
+            turnedAway = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+        for (Ticket ticket : turnedAway) {
+            if (ticket.future.completeExceptionally(
+                    new RejectedExecutionException("This server is shutting down, please try again"))) {
+                rejected.incrementAndGet();
+            }
+        }
+        log.info("Admission closed, turned away {} waiting starts", turnedAway.size());
+    }
+    
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Give a slot back and admit whoever is next in line
+     */
+    public void release(Permit permit) {
+        if (permit == null || !permit.counted || !permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long heldMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - permit.admittedAt);
+        List<Ticket> admitted = new ArrayList<>();
+        synchronized (this) {
+            active--;
+            activePerKey.merge(permit.apiKeyId, -1, (count, delta) -> count + delta > 0 ? count + delta : null);
+            averageSessionMs = averageSessionMs == 0 ? heldMs : averageSessionMs * 0.8 + heldMs * 0.2;
+            
+            // Strict FIFO: stop at the first start whose key is still over budget
+            while (!waiting.isEmpty() && hasCapacity(waiting.peekFirst().apiKeyId)) {
+                Ticket next = waiting.pollFirst();
+                next.permit = acquire(next.apiKeyId);
+                admitted.add(next);
+            }
+        }
+        
+        for (Ticket ticket : admitted) {
+            long waited = System.nanoTime() - ticket.enqueuedAt;
+            waitNanosTotal.addAndGet(waited);
+            waitNanosMax.accumulateAndGet(waited, Math::max);
+            if (ticket.future.complete(ticket.permit)) {
+                admittedFromQueue.incrementAndGet();
+                notifyUser(ticket, 0, 0);
+            } else {
+                // Timed out just before the slot came up
+                release(ticket.permit);
+            }
+        }
+        if (!admitted.isEmpty()) {
+            publishPositions();
+        }
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long fromQueue = admittedFromQueue.get();
+        stats.put("enabled", enabled);
+        stats.put("closed", closed);
+        stats.put("maxSessionsPerNode", maxSessionsPerNode);
+        stats.put("maxSessionsPerKey", maxSessionsPerKey);
+        stats.put("activeSessions", active);
+        stats.put("activeSessionsPerKey", new HashMap<>(activePerKey));
+        stats.put("waiting", waiting.size());
+        stats.put("admittedImmediately", admittedImmediately.get());
+        stats.put("admittedFromQueue", fromQueue);
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("cancelled", cancelled.get());
+        stats.put("avgWaitMs", fromQueue > 0 ? TimeUnit.NANOSECONDS.toMillis(waitNanosTotal.get() / fromQueue) : 0);
+        stats.put("longestWaitMs", TimeUnit.NANOSECONDS.toMillis(waitNanosMax.get()));
+        stats.put("avgSessionMs", Math.round(averageSessionMs));
+        return stats;
+    }
+    
+    private boolean hasCapacity(String apiKeyId) {
+        return active < maxSessionsPerNode && activePerKey.getOrDefault(apiKeyId, 0) < maxSessionsPerKey;
+    }
+    
+    private Permit acquire(String apiKeyId) {
+        active++;
+        activePerKey.merge(apiKeyId, 1, Integer::sum);
+        return new Permit(apiKeyId, true);
+    }
+    
+    /**
+     * Take the waiting starts of a disconnected STOMP session out of the waiting room, so nobody
+     * queues behind a closed tab and no slot is given to it
+     */
+    public void cancel(String clientSessionId) {
+        if (clientSessionId == null) {
+            return;
+        }
+        List<Ticket> left = new ArrayList<>();
+        synchronized (this) {
+            waiting.removeIf(ticket -> {
+                boolean match = clientSessionId.equals(ticket.clientSessionId);
+                if (match) {
+                    left.add(ticket);
+                }
+                return match;
+            });
+        }
+        if (left.isEmpty()) {
+            return;
+        }
+        for (Ticket ticket : left) {
+            cancelled.incrementAndGet();
+            ticket.future.completeExceptionally(new CancellationException("Client disconnected while waiting"));
+            log.info("User {} left the waiting room", ticket.userId);
+        }
+        publishPositions();
+    }
+    
+    private synchronized boolean leave(Ticket ticket) {
+        return waiting.remove(ticket);
+    }
+    
+    /**
+     * Send every waiting user their current position and estimated wait
+     */
+    private void publishPositions() {
+        List<Ticket> snapshot;
+        long[] etas;
+        synchronized (this) {
+            snapshot = new ArrayList<>(waiting);
+            etas = new long[snapshot.size()];
+            for (int i = 0; i < etas.length; i++) {
+                etas[i] = estimateWait(i + 1);
+            }
+        }
+        for (int i = 0; i < etas.length; i++) {
+            notifyUser(snapshot.get(i), i + 1, etas[i]);
+        }
+    }
+    
+    /**
+     * Slots free up roughly evenly over a session length, so each full set of slots ahead
+     * costs about one session
+     */
+    private long estimateWait(int position) {
+        long sessionMs = averageSessionMs > 0 ? Math.round(averageSessionMs) : initialSessionEstimateMs;
+        int slots = Math.max(1, Math.min(maxSessionsPerNode, maxSessionsPerKey));
+        return sessionMs * position / slots;
+    }
+    
+    private void notifyUser(Ticket ticket, int position, long etaMs) {
+        if (ticket.userName == null) {
+            return;
+        }
+        Map<String, Object> update = new HashMap<>();
+        update.put("status", position > 0 ? "WAITING" : "ADMITTED");
+        update.put("position", position);
+        update.put("etaMs", etaMs);
+        try {
+            messagingTemplate.convertAndSendToUser(ticket.userName, WAITING_ROOM_DESTINATION, update);
+        } catch (Exception e) {
+            log.debug("Could not send waiting room update to user: {}", ticket.userId, e);
+        }
+    }
+    
+    /**
+     * A held session slot; released once when the session ends
+     */
+    public static class Permit {
+        private final String apiKeyId;
+        private final boolean counted;
+        private final long admittedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        Permit(String apiKeyId, boolean counted) {
+            this.apiKeyId = apiKeyId;
+            this.counted = counted;
+        }
+    }
+    
+    private static class Ticket {
+        private final String userId;
+        private final String userName;
+        private final String apiKeyId;
+        private final String clientSessionId;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private Permit permit;
+        
+        Ticket(String userId, String userName, String apiKeyId, String clientSessionId) {
+            this.userId = userId;
+            this.userName = userName;
+            this.apiKeyId = apiKeyId;
+            this.clientSessionId = clientSessionId;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.interview.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops model audio that was queued for the browser before the candidate barged in.
+ *
+ * Every session has an audio generation that moves forward on each interruption. Audio
+ * messages carry their generation in a native header. A message from an older generation is
+ * dropped twice over: on the client outbound channel, and again right before it is written to
+ * the socket. The second check is what matters once the browser reads slowly: Spring keeps
+ * frames the socket has not taken yet in the session's send buffer (up to the send buffer size
+ * limit), and stale audio parked there would otherwise still be played.
+ *
+ * Both timings are taken when a frame is written to the socket, not when it is handed to the
+ * send buffer; time on the network and in the browser is not covered. Barge-in latency is the
+ * time from the interruption to the last stale frame that still got written (zero when none
+ * did), which only happens to a frame whose write had already started. Interrupt delivery is
+ * the time from the interruption to the notice being written.
+ */
+@Slf4j
+@Component
+public class BargeInController implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+    
+    public static final String GENERATION_HEADER = "x-audio-generation";
+    public static final String INTERRUPT_HEADER = "x-interrupted-generation";
+    
+    private static final String DESTINATION_PREFIX = "/topic/interview/";
+    private static final String DESTINATION_HEADER = "destination";
+    
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+    
+    private final AtomicLong interruptions = new AtomicLong();
+    private final AtomicLong staleDropped = new AtomicLong();
+    private final AtomicLong staleDroppedAtSocket = new AtomicLong();
+    private final AtomicLong staleSent = new AtomicLong();
+    private final AtomicLong bargeInSamples = new AtomicLong();
+    private final AtomicLong bargeInNanosTotal = new AtomicLong();
+    private final AtomicLong bargeInNanosMax = new AtomicLong();
+    private final AtomicLong deliverySamples = new AtomicLong();
+    private final AtomicLong deliveryNanosTotal = new AtomicLong();
+    private final AtomicLong deliveryNanosMax = new AtomicLong();
+    
+    /**
+     * Generation to stamp on audio sent to the session now
+     */
+    public long current(String sessionId) {
+        Generation generation = generations.get(sessionId);
+        return generation != null ? generation.value : 0;
+    }
+    
+    /**
+     * Start a new generation; all audio stamped with an older one becomes stale
+     */
+    public long interrupt(String sessionId) {
+        Generation generation = generations.computeIfAbsent(sessionId, id -> new Generation());
+        synchronized (generation) {
+            generation.finishBargeIn(this);
+            generation.interruptedAt = System.nanoTime();
+            generation.staleWindowOpen = true;
+            generation.lastStaleSentAt = 0;
+            interruptions.incrementAndGet();
+            return ++generation.value;
+        }
+    }
+    
+    public void remove(String sessionId) {
+        Generation generation = generations.remove(sessionId);
+        if (generation != null) {
+            synchronized (generation) {
+                generation.finishBargeIn(this);
+            }
+        }
+    }
+    
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        long stamped = nativeHeaderValue(message, GENERATION_HEADER);
+        if (stamped < 0) {
+            return message;
+        }
+        Generation generation = generationFor(message);
+        if (generation != null && stamped < generation.value) {
+            staleDropped.incrementAndGet();
+            return null;
+        }
+        return message;
+    }
+    
+    /**
+     * Check frames again as the socket takes them, past the session's send buffer
+     */
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new GenerationCheckingSession(session));
+            }
+        };
+    }
+    
+    /**
+     * Write a frame unless it is stale audio, recording barge-in and interrupt delivery times
+     */
+    private void send(WebSocketSession session, WebSocketMessage<?> message) throws IOException {
+        FrameHeaders headers = message instanceof TextMessage text ? FrameHeaders.parse(text.getPayload()) : null;
+        Generation generation = headers != null && headers.destination != null
+            && headers.destination.startsWith(DESTINATION_PREFIX)
+            ? generations.get(headers.destination.substring(DESTINATION_PREFIX.length())) : null;
+        if (generation == null || (headers.stamped < 0 && headers.interrupted < 0)) {
+            session.sendMessage(message);
+            return;
+        }
+        
+        if (headers.stamped >= 0 && headers.stamped < generation.value) {
+            staleDroppedAtSocket.incrementAndGet();
+            return;
+        }
+        session.sendMessage(message);
+        
+        long now = System.nanoTime();
+        synchronized (generation) {
+            if (headers.interrupted >= 0) {
+                if (headers.interrupted == generation.value) {
+                    record(now - generation.interruptedAt, deliverySamples, deliveryNanosTotal, deliveryNanosMax);
+                }
+            } else if (headers.stamped < generation.value) {
+                // Was already being written when the interruption arrived
+                staleSent.incrementAndGet();
+                generation.lastStaleSentAt = now;
+            } else {
+                // First audio of the new generation closes the stale window
+                generation.finishBargeIn(this);
+            }
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", generations.size());
+        stats.put("interruptions", interruptions.get());
+        stats.put("staleFramesDropped", staleDropped.get());
+        stats.put("staleFramesDroppedAtSocket", staleDroppedAtSocket.get());
+        stats.put("staleFramesSent", staleSent.get());
+        stats.put("bargeInSamples", bargeInSamples.get());
+        stats.put("avgBargeInLatencyMs", averageMillis(bargeInNanosTotal, bargeInSamples));
+        stats.put("maxBargeInLatencyMs", TimeUnit.NANOSECONDS.toMillis(bargeInNanosMax.get()));
+        stats.put("avgInterruptDeliveryMs", averageMillis(deliveryNanosTotal, deliverySamples));
+        stats.put("maxInterruptDeliveryMs", TimeUnit.NANOSECONDS.toMillis(deliveryNanosMax.get()));
+        return stats;
+    }
+    
+    private Generation generationFor(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+            return null;
+        }
+        return generations.get(destination.substring(DESTINATION_PREFIX.length()));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static long nativeHeaderValue(Message<?> message, String name) {
+        Object nativeHeaders = message.getHeaders().get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        if (!(nativeHeaders instanceof Map)) {
+            return -1;
+        }
+        List<String> values = ((Map<String, List<String>>) nativeHeaders).get(name);
+        if (values == null || values.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(values.get(0));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private static void record(long nanos, AtomicLong samples, AtomicLong total, AtomicLong max) {
+        samples.incrementAndGet();
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+    
+    private static long averageMillis(AtomicLong total, AtomicLong samples) {
+        long count = samples.get();
+        return count > 0 ? TimeUnit.NANOSECONDS.toMillis(total.get() / count) : 0;
+    }
+    
+    private class GenerationCheckingSession extends WebSocketSessionDecorator {
+        
+        GenerationCheckingSession(WebSocketSession session) {
+            super(session);
+        }
+        
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            send(getDelegate(), message);
+        }
+    }
+    
+    /**
+     * The headers of an encoded STOMP frame that matter here; the body is not read
+     */
+    private static class FrameHeaders {
+        private String destination;
+        private long stamped = -1;
+        private long interrupted = -1;
+        
+        static FrameHeaders parse(String frame) {
+            FrameHeaders headers = new FrameHeaders();
+            int lineStart = frame.indexOf('\n') + 1;
+            while (lineStart > 0 && lineStart < frame.length()) {
+                int lineEnd = frame.indexOf('\n', lineStart);
+                if (lineEnd < 0 || lineEnd == lineStart) {
+                    break;
+                }
+                int colon = frame.indexOf(':', lineStart);
+                if (colon > 0 && colon < lineEnd) {
+                    if (frame.startsWith(DESTINATION_HEADER, lineStart) && colon - lineStart == DESTINATION_HEADER.length()) {
+                        headers.destination = frame.substring(colon + 1, lineEnd);
+                    } else if (frame.startsWith(GENERATION_HEADER, lineStart) && colon - lineStart == GENERATION_HEADER.length()) {
+                        headers.stamped = parseLong(frame.substring(colon + 1, lineEnd));
+                    } else if (frame.startsWith(INTERRUPT_HEADER, lineStart) && colon - lineStart == INTERRUPT_HEADER.length()) {
+                        headers.interrupted = parseLong(frame.substring(colon + 1, lineEnd));
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return headers;
+        }
+        
+        private static long parseLong(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+    
+    private static class Generation {
+        private volatile long value;
+        private long interruptedAt;
+        private long lastStaleSentAt;
+        private boolean staleWindowOpen;
+        
+        /**
+         * Record the barge-in latency of the last interruption, once
+         */
+        void finishBargeIn(BargeInController controller) {
+            if (!staleWindowOpen) {
+                return;
+            }
+            staleWindowOpen = false;
+            long latency = lastStaleSentAt > interruptedAt ? lastStaleSentAt - interruptedAt : 0;
+            record(latency, controller.bargeInSamples, controller.bargeInNanosTotal, controller.bargeInNanosMax);
+        }
+    }
+}
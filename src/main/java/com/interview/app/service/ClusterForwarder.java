@@ -0,0 +1,156 @@
+package com.interview.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.app.dto.InterviewMessage;
+import com.interview.app.dto.MediaStreamRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands traffic for a session to the node that owns it.
+ *
+ * Calls go to the owner's {@code /internal/cluster} endpoints and carry the shared cluster
+ * token; with no token configured nothing is forwarded or accepted. The owner handles forwarded
+ * traffic locally and never forwards it again. STOMP messages for a session are sent one at a
+ * time, so audio reaches the owner in the order it was received.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterForwarder {
+    
+    public static final String TOKEN_HEADER = "X-Cluster-Token";
+    // User the forwarding node authenticated; the owner checks it against the session's user
+    public static final String USER_HEADER = "X-Cluster-User";
+    
+    private final ObjectMapper objectMapper;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+    
+    // Session id -> the last message forward queued for it
+    private final Map<String, CompletableFuture<Void>> messageChains = new ConcurrentHashMap<>();
+    
+    private final AtomicLong mediaForwarded = new AtomicLong();
+    private final AtomicLong messagesForwarded = new AtomicLong();
+    private final AtomicLong forwardFailures = new AtomicLong();
+    
+    @Value("${cluster.internal-token:}")
+    private String internalToken;
+    
+    @Value("${cluster.forward-timeout-ms:2000}")
+    private long forwardTimeoutMs;
+    
+    public boolean isEnabled() {
+        return !internalToken.isBlank();
+    }
+    
+    /**
+     * Whether a request carries this cluster's token
+     */
+    public boolean isTrusted(String token) {
+        return isEnabled() && token != null && MessageDigest.isEqual(
+            internalToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Post a media request to the owning node and return its HTTP status; 502 when the node
+     * could not be reached
+     */
+    public int forwardMedia(SessionRegistry.Member owner, String sessionId, String userId, MediaStreamRequest payload) {
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                request(owner, "/internal/cluster/media/" + sessionId, userId, objectMapper.writeValueAsString(payload)),
+                HttpResponse.BodyHandlers.discarding());
+            mediaForwarded.incrementAndGet();
+            return response.statusCode();
+        } catch (IOException e) {
+            forwardFailures.incrementAndGet();
+            log.warn("Could not forward media for session {} to node {}: {}", sessionId, owner.getNodeId(), e.toString());
+            return 502;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 502;
+        }
+    }
+    
+    /**
+     * Send a STOMP message on to the owning node without waiting for it. The request starts once
+     * the session's previous forward has finished.
+     */
+    public void forwardMessage(SessionRegistry.Member owner, String userId, InterviewMessage message) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            forwardFailures.incrementAndGet();
+            log.warn("Could not serialize message for session {}", message.getSessionId(), e);
+            return;
+        }
+        sendInOrder(owner, message.getSessionId(), request(owner, "/internal/cluster/message", userId, body));
+    }
+    
+    /**
+     * Ask the owning node to end a session, after the messages already forwarded for it
+     */
+    public void forwardEnd(SessionRegistry.Member owner, String userId, String sessionId) {
+        sendInOrder(owner, sessionId, request(owner, "/internal/cluster/end/" + sessionId, userId, ""));
+    }
+    
+    private void sendInOrder(SessionRegistry.Member owner, String sessionId, HttpRequest request) {
+        CompletableFuture<Void> sent = messageChains.compute(sessionId, (id, previous) ->
+            (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                .thenCompose(ignored -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .handle((response, error) -> {
+                    if (error != null || response.statusCode() >= 300) {
+                        forwardFailures.incrementAndGet();
+                        log.warn("Could not forward message for session {} to node {}: {}", sessionId,
+                            owner.getNodeId(), error != null ? error.toString() : "HTTP " + response.statusCode());
+                    } else {
+                        messagesForwarded.incrementAndGet();
+                    }
+                    return null;
+                }));
+        // Drop the chain once it has caught up, so idle sessions leave nothing behind
+        sent.whenComplete((ignored, error) -> messageChains.remove(sessionId, sent));
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("mediaForwarded", mediaForwarded.get());
+        stats.put("messagesForwarded", messagesForwarded.get());
+        stats.put("forwardFailures", forwardFailures.get());
+        stats.put("sessionsForwarding", messageChains.size());
+        return stats;
+    }
+    
+    private HttpRequest request(SessionRegistry.Member owner, String path, String userId, String body) {
+        return HttpRequest.newBuilder(URI.create(owner.getUrl() + path))
+            .timeout(Duration.ofMillis(forwardTimeoutMs))
+            .header("Content-Type", "application/json")
+            .header(TOKEN_HEADER, internalToken)
+            .header(USER_HEADER, userId)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.interview.app.service;
+
+import com.interview.app.websocket.GeminiConnectionPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Takes this node out of service without cutting interviews off mid-sentence.
+ *
+ * A drain first flips readiness to REFUSING_TRAFFIC so load balancers stop routing here, then
+ * closes admission (the waiting room is turned away) and tells every live session when it will
+ * be ended. Sessions get a grace period to finish on their own; whatever is left is closed all
+ * at once within a global deadline. A drain runs on demand through the actuator, and on context
+ * shutdown with a shorter grace period if nobody started one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DrainCoordinator {
+    
+    public enum State {
+        SERVING, DRAINING, CLOSING, DRAINED
+    }
+    
+    private final ApplicationContext applicationContext;
+    private final AdmissionController admissionController;
+    private final InterviewService interviewService;
+    private final GeminiConnectionPool connectionPool;
+    private final SessionRegistry sessionRegistry;
+    
+    private final AtomicReference<State> state = new AtomicReference<>(State.SERVING);
+    private volatile CompletableFuture<Void> completion;
+    private volatile long startedAt;
+    private volatile long graceEndsAt;
+    private volatile long closeDeadlineAt;
+    private volatile long finishedAt;
+    private volatile int sessionsAtStart;
+    private volatile int sessionsForceEnded;
+    private volatile int connectionsAbandoned;
+    
+    @Value("${interview.drain.grace-period-ms:120000}")
+    private long gracePeriodMs;
+    
+    @Value("${interview.drain.shutdown-grace-period-ms:15000}")
+    private long shutdownGracePeriodMs;
+    
+    @Value("${interview.drain.close-timeout-ms:10000}")
+    private long closeTimeoutMs;
+    
+    @Value("${interview.drain.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    
+    /**
+     * Start draining with the configured grace period; a drain already under way is left alone
+     */
+    public Map<String, Object> drain() {
+        start(gracePeriodMs);
+        return getProgress();
+    }
+    
+    /**
+     * Runs before the web server and message broker stop, so clients can still be told
+     */
+    @EventListener
+    public void onContextClosed(ContextClosedEvent event) {
+        if (event.getApplicationContext() != applicationContext) {
+            return;
+        }
+        CompletableFuture<Void> running = start(shutdownGracePeriodMs);
+        long waitMs = Math.max(0, graceEndsAt - System.currentTimeMillis()) + closeTimeoutMs + pollIntervalMs;
+        try {
+            running.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("Drain did not finish before shutdown: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public Map<String, Object> getProgress() {
+        int remaining = interviewService.getActiveSessionCount();
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("state", state.get());
+        progress.put("startedAt", startedAt);
+        progress.put("graceEndsAt", graceEndsAt);
+        progress.put("closeDeadlineAt", closeDeadlineAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("sessionsAtStart", sessionsAtStart);
+        progress.put("sessionsRemaining", remaining);
+        progress.put("sessionsForceEnded", sessionsForceEnded);
+        progress.put("connectionsRemaining", connectionPool.getActiveConnectionCount());
+        progress.put("connectionsAbandoned", connectionsAbandoned);
+        progress.put("waitingRoomClosed", admissionController.isClosed());
+        return progress;
+    }
+    
+    private synchronized CompletableFuture<Void> start(long graceMs) {
+        if (!state.compareAndSet(State.SERVING, State.DRAINING)) {
+            return completion;
+        }
+        startedAt = System.currentTimeMillis();
+        graceEndsAt = startedAt + graceMs;
+        sessionsAtStart = interviewService.getActiveSessionCount();
+        log.info("Draining: {} live sessions, grace period {} ms", sessionsAtStart, graceMs);
+        
+        // Unready first, so no new traffic arrives while the rest winds down
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        sessionRegistry.leave();
+        admissionController.close();
+        interviewService.notifyDraining(graceEndsAt);
+        
+        completion = new CompletableFuture<>();
+        Thread.ofPlatform().name("interview-drain").daemon(true).start(this::run);
+        return completion;
+    }
+    
+    private void run() {
+        try {
+            while (interviewService.getActiveSessionCount() > 0 && System.currentTimeMillis() < graceEndsAt) {
+                Thread.sleep(pollIntervalMs);
+            }
+            
+            state.set(State.CLOSING);
+            closeDeadlineAt = System.currentTimeMillis() + closeTimeoutMs;
+            int remaining = interviewService.getActiveSessionCount();
+            if (remaining > 0) {
+                log.info("Drain grace period over, ending {} sessions", remaining);
+            }
+            // Sockets close in parallel first, so ending the sessions no longer waits on Gemini
+            connectionsAbandoned = connectionPool.closeAllConnections(closeTimeoutMs);
+            int ended = 0;
+            for (InterviewService.SessionActivity activity : interviewService.getSessionActivity()) {
+                interviewService.endInterview(activity.getSessionId());
+                ended++;
+            }
+            sessionsForceEnded = ended;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finishedAt = System.currentTimeMillis();
+            state.set(State.DRAINED);
+            log.info("Drain finished in {} ms: {} sessions ended by force, {} connections abandoned",
+                finishedAt - startedAt, sessionsForceEnded, connectionsAbandoned);
+            completion.complete(null);
+        }
+    }
+}
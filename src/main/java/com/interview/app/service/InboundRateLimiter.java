@@ -0,0 +1,350 @@
+package com.interview.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token-bucket limits on media sent by clients, per authenticated user and per session.
+ *
+ * Audio and screen/video traffic have separate bytes/sec and messages/sec budgets. Each bucket
+ * is a single atomic "theoretical arrival time" (GCRA), so checks are lock-free: a message fits
+ * when, after adding its cost, the bucket is no more than one burst ahead of now. Over budget,
+ * a class either sheds the message or, if the wait is short enough, delays the sender until
+ * it fits.
+ */
+@Slf4j
+@Component
+public class InboundRateLimiter {
+    
+    public enum MediaClass {
+        AUDIO, VISUAL
+    }
+    
+    private static final int CLASSIFY_PREFIX_BYTES = 1024;
+    private static final byte[] SESSION_ID_FIELD = "\"sessionId\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] VISUAL_MARKERS = {
+        "image/".getBytes(StandardCharsets.US_ASCII),
+        "video/".getBytes(StandardCharsets.US_ASCII),
+        "\"SCREEN_SHARE\"".getBytes(StandardCharsets.US_ASCII),
+        "\"VIDEO\"".getBytes(StandardCharsets.US_ASCII)
+    };
+    
+    private final Map<String, Buckets> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong messagesShed = new AtomicLong();
+    private final AtomicLong messagesDelayed = new AtomicLong();
+    
+    @Value("${interview.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${interview.rate-limit.audio.bytes-per-second:524288}")
+    private long audioBytesPerSecond;
+    
+    @Value("${interview.rate-limit.audio.messages-per-second:100}")
+    private long audioMessagesPerSecond;
+    
+    @Value("${interview.rate-limit.audio.policy:delay}")
+    private String audioPolicy;
+    
+    @Value("${interview.rate-limit.visual.bytes-per-second:4194304}")
+    private long visualBytesPerSecond;
+    
+    @Value("${interview.rate-limit.visual.messages-per-second:10}")
+    private long visualMessagesPerSecond;
+    
+    @Value("${interview.rate-limit.visual.policy:shed}")
+    private String visualPolicy;
+    
+    @Value("${interview.rate-limit.burst-seconds:2}")
+    private double burstSeconds;
+    
+    @Value("${interview.rate-limit.max-delay-ms:250}")
+    private long maxDelayMs;
+    
+    @Value("${interview.rate-limit.idle-eviction-ms:300000}")
+    private long idleEvictionMs;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Charge one message against the user's and the session's buckets. Returns true when the
+     * message may go on, possibly after the calling thread was delayed; false when it is shed.
+     */
+    public boolean acquire(String user, String session, MediaClass mediaClass, long bytes) {
+        if (!enabled) {
+            return true;
+        }
+        boolean delay = "delay".equalsIgnoreCase(mediaClass == MediaClass.AUDIO ? audioPolicy : visualPolicy);
+        long maxDelayNanos = delay ? TimeUnit.MILLISECONDS.toNanos(maxDelayMs) : 0;
+        long now = System.nanoTime();
+        
+        // The session is checked first so one noisy session does not use up the user's budget
+        long wait = 0;
+        Buckets sessionBuckets = session != null ? bucketsFor("session:" + session) : null;
+        Buckets userBuckets = user != null ? bucketsFor("user:" + user) : null;
+        for (Buckets target : new Buckets[] {sessionBuckets, userBuckets}) {
+            if (target == null) {
+                continue;
+            }
+            long needed = target.charge(mediaClass, bytes, now, maxDelayNanos);
+            if (needed < 0) {
+                messagesShed.incrementAndGet();
+                target.shed(mediaClass, bytes);
+                if (target == userBuckets && sessionBuckets != null) {
+                    sessionBuckets.refund(mediaClass, bytes);
+                }
+                return false;
+            }
+            wait = Math.max(wait, needed);
+        }
+        
+        if (wait > 0) {
+            messagesDelayed.incrementAndGet();
+            for (Buckets target : new Buckets[] {sessionBuckets, userBuckets}) {
+                if (target != null) {
+                    target.delayed(mediaClass, wait);
+                }
+            }
+            LockSupport.parkNanos(wait);
+        }
+        return true;
+    }
+    
+    /**
+     * Give back a charge that was let through when the request it belonged to was shed as a whole
+     */
+    public void refund(String user, String session, MediaClass mediaClass, long bytes) {
+        if (!enabled) {
+            return;
+        }
+        for (String key : new String[] {session != null ? "session:" + session : null, user != null ? "user:" + user : null}) {
+            Buckets target = key != null ? buckets.get(key) : null;
+            if (target != null) {
+                target.refund(mediaClass, bytes);
+            }
+        }
+    }
+    
+    /**
+     * Audio unless a media type or message type near the start of the payload says otherwise;
+     * mime types come before the base64 data in chunk JSON
+     */
+    public MediaClass classify(byte[] payload) {
+        int limit = Math.min(payload.length, CLASSIFY_PREFIX_BYTES);
+        for (byte[] marker : VISUAL_MARKERS) {
+            if (indexOf(payload, limit, marker) >= 0) {
+                return MediaClass.VISUAL;
+            }
+        }
+        return MediaClass.AUDIO;
+    }
+    
+    /**
+     * The interview session id of a message payload, so STOMP frames and REST media requests of
+     * one session share its buckets; null when the payload names none. Base64 data holds no
+     * quotes, so the field cannot be matched inside a chunk.
+     */
+    public String sessionIdOf(byte[] payload) {
+        int field = indexOf(payload, payload.length, SESSION_ID_FIELD);
+        if (field < 0) {
+            return null;
+        }
+        int i = field + SESSION_ID_FIELD.length;
+        while (i < payload.length && (payload[i] == ' ' || payload[i] == ':')) {
+            i++;
+        }
+        if (i >= payload.length || payload[i] != '"') {
+            return null;
+        }
+        int start = ++i;
+        while (i < payload.length && payload[i] != '"') {
+            i++;
+        }
+        return i < payload.length && i > start ? new String(payload, start, i - start, StandardCharsets.US_ASCII) : null;
+    }
+    
+    public MediaClass classify(String mimeType) {
+        return mimeType != null && (mimeType.startsWith("image/") || mimeType.startsWith("video/"))
+            ? MediaClass.VISUAL : MediaClass.AUDIO;
+    }
+    
+    /**
+     * Forget the buckets of a session that has gone away
+     */
+    public void removeSession(String session) {
+        buckets.remove("session:" + session);
+    }
+    
+    @Scheduled(fixedDelayString = "${interview.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        buckets.values().removeIf(target -> target.lastUsedAt < cutoff);
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Object> perKey = new HashMap<>();
+        buckets.forEach((key, target) -> {
+            if (target.hasThrottled()) {
+                perKey.put(key, target.getStats());
+            }
+        });
+        stats.put("enabled", enabled);
+        stats.put("trackedKeys", buckets.size());
+        stats.put("messagesShed", messagesShed.get());
+        stats.put("messagesDelayed", messagesDelayed.get());
+        stats.put("throttled", perKey);
+        return stats;
+    }
+    
+    private Buckets bucketsFor(String key) {
+        return buckets.computeIfAbsent(key, ignored -> new Buckets(
+            new ClassBuckets(audioBytesPerSecond, audioMessagesPerSecond, burstSeconds),
+            new ClassBuckets(visualBytesPerSecond, visualMessagesPerSecond, burstSeconds)));
+    }
+    
+    private static int indexOf(byte[] data, int limit, byte[] marker) {
+        outer:
+        for (int i = 0; i <= limit - marker.length; i++) {
+            for (int j = 0; j < marker.length; j++) {
+                if (data[i + j] != marker[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+    
+    private static class Buckets {
+        private final ClassBuckets audio;
+        private final ClassBuckets visual;
+        private volatile long lastUsedAt = System.nanoTime();
+        
+        Buckets(ClassBuckets audio, ClassBuckets visual) {
+            this.audio = audio;
+            this.visual = visual;
+        }
+        
+        long charge(MediaClass mediaClass, long bytes, long now, long maxDelayNanos) {
+            lastUsedAt = now;
+            return (mediaClass == MediaClass.AUDIO ? audio : visual).charge(bytes, now, maxDelayNanos);
+        }
+        
+        void refund(MediaClass mediaClass, long size) {
+            ClassBuckets target = mediaClass == MediaClass.AUDIO ? audio : visual;
+            target.bytes.refund(size);
+            target.messages.refund(1);
+        }
+        
+        void shed(MediaClass mediaClass, long bytes) {
+            ClassBuckets target = mediaClass == MediaClass.AUDIO ? audio : visual;
+            target.shed.incrementAndGet();
+            target.bytesShed.addAndGet(bytes);
+        }
+        
+        void delayed(MediaClass mediaClass, long nanos) {
+            ClassBuckets target = mediaClass == MediaClass.AUDIO ? audio : visual;
+            target.delayed.incrementAndGet();
+            target.delayNanos.addAndGet(nanos);
+        }
+        
+        boolean hasThrottled() {
+            return audio.shed.get() + audio.delayed.get() + visual.shed.get() + visual.delayed.get() > 0;
+        }
+        
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("audio", audio.getStats());
+            stats.put("visual", visual.getStats());
+            return stats;
+        }
+    }
+    
+    /**
+     * Byte and message buckets for one class of traffic
+     */
+    private static class ClassBuckets {
+        private final Bucket bytes;
+        private final Bucket messages;
+        private final AtomicLong shed = new AtomicLong();
+        private final AtomicLong bytesShed = new AtomicLong();
+        private final AtomicLong delayed = new AtomicLong();
+        private final AtomicLong delayNanos = new AtomicLong();
+        
+        ClassBuckets(long bytesPerSecond, long messagesPerSecond, double burstSeconds) {
+            this.bytes = new Bucket(bytesPerSecond, burstSeconds);
+            this.messages = new Bucket(messagesPerSecond, burstSeconds);
+        }
+        
+        /**
+         * Nanoseconds to wait before the message fits both buckets, or -1 to shed it. Nothing
+         * is charged when the message is shed.
+         */
+        long charge(long size, long now, long maxDelayNanos) {
+            long byteWait = bytes.take(size, now, maxDelayNanos);
+            if (byteWait < 0) {
+                return -1;
+            }
+            long messageWait = messages.take(1, now, maxDelayNanos);
+            if (messageWait < 0) {
+                bytes.refund(size);
+                return -1;
+            }
+            return Math.max(byteWait, messageWait);
+        }
+        
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("shed", shed.get());
+            stats.put("bytesShed", bytesShed.get());
+            stats.put("delayed", delayed.get());
+            stats.put("delayMs", TimeUnit.NANOSECONDS.toMillis(delayNanos.get()));
+            return stats;
+        }
+    }
+    
+    /**
+     * GCRA bucket: tracks the time at which the bucket would be empty again
+     */
+    private static class Bucket {
+        private final double nanosPerUnit;
+        private final long burstNanos;
+        private final AtomicLong emptyAt = new AtomicLong(System.nanoTime());
+        
+        Bucket(long unitsPerSecond, double burstSeconds) {
+            this.nanosPerUnit = 1e9 / Math.max(1, unitsPerSecond);
+            this.burstNanos = (long) (burstSeconds * 1e9);
+        }
+        
+        long take(long units, long now, long maxDelayNanos) {
+            long cost = (long) (units * nanosPerUnit);
+            while (true) {
+                long current = emptyAt.get();
+                long next = Math.max(current, now) + cost;
+                long wait = next - now - burstNanos;
+                if (wait > maxDelayNanos) {
+                    return -1;
+                }
+                if (emptyAt.compareAndSet(current, next)) {
+                    return Math.max(0, wait);
+                }
+            }
+        }
+        
+        void refund(long units) {
+            emptyAt.addAndGet(-(long) (units * nanosPerUnit));
+        }
+    }
+}
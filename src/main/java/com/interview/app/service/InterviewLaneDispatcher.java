@@ -0,0 +1,208 @@
+package com.interview.app.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs inbound interview messages on per-session lanes: strictly FIFO within a session,
+ * parallel across sessions. A slow session only backs up its own lane, and each lane's
+ * queue is bounded. Lanes are opened and closed by InterviewService along with the session,
+ * so messages for unknown or ended sessions never get one.
+ */
+@Slf4j
+@Component
+public class InterviewLaneDispatcher {
+    
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicLong totalRejected = new AtomicLong();
+    
+    @Value("${interview.lanes.threads:8}")
+    private int laneThreads;
+    
+    @Value("${interview.lanes.max-queue-size:256}")
+    private int maxQueueSize;
+    
+    @Value("${interview.lanes.batch-size:32}")
+    private int batchSize;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("interview-lane-", 1).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "interview-lane-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = Executors.newFixedThreadPool(laneThreads, threadFactory);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Open a lane for a session that has just started
+     */
+    public void open(String sessionId) {
+        lanes.computeIfAbsent(sessionId, Lane::new);
+    }
+    
+    /**
+     * Queue a task on the session's lane. Returns false if the session has no lane or the lane
+     * is full, and the task was dropped.
+     */
+    public boolean dispatch(String sessionId, Runnable task) {
+        if (sessionId == null) {
+            log.warn("Dropping inbound message without session id");
+            return false;
+        }
+        
+        Lane lane = lanes.get(sessionId);
+        if (lane == null) {
+            totalRejected.incrementAndGet();
+            log.debug("No lane for session: {}, dropping message", sessionId);
+            return false;
+        }
+        if (lane.depth.incrementAndGet() > maxQueueSize) {
+            lane.depth.decrementAndGet();
+            lane.rejected.incrementAndGet();
+            totalRejected.incrementAndGet();
+            log.warn("Inbound lane full for session: {}, dropping message", sessionId);
+            return false;
+        }
+        
+        lane.queue.offer(new Task(task, System.nanoTime()));
+        schedule(lane);
+        return true;
+    }
+    
+    /**
+     * Retire the session's lane once every task queued before this call has run
+     */
+    public void close(String sessionId) {
+        Lane lane = lanes.get(sessionId);
+        if (lane == null) {
+            return;
+        }
+        lane.depth.incrementAndGet();
+        lane.queue.offer(new Task(() -> lanes.remove(sessionId, lane), System.nanoTime()));
+        schedule(lane);
+    }
+    
+    /**
+     * Lane count plus queue depth and wait times per lane
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perLane = new HashMap<>();
+        lanes.forEach((sessionId, lane) -> perLane.put(sessionId, lane.getStats()));
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("laneCount", lanes.size());
+        stats.put("maxQueueSize", maxQueueSize);
+        stats.put("totalRejected", totalRejected.get());
+        stats.put("lanes", perLane);
+        return stats;
+    }
+    
+    private void schedule(Lane lane) {
+        if (!lane.running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(lane));
+        } catch (RejectedExecutionException e) {
+            lane.running.set(false);
+            log.warn("Lane executor rejected work for session: {}", lane.sessionId);
+        }
+    }
+    
+    private void drain(Lane lane) {
+        // Bounded batches keep one busy session from monopolizing a worker
+        for (int i = 0; i < batchSize; i++) {
+            Task task = lane.queue.poll();
+            if (task == null) {
+                break;
+            }
+            lane.depth.decrementAndGet();
+            lane.recordWait(System.nanoTime() - task.enqueuedAt);
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                log.error("Error processing inbound message for session: {}", lane.sessionId, e);
+            }
+            lane.processed.incrementAndGet();
+        }
+        
+        lane.running.set(false);
+        if (!lane.queue.isEmpty()) {
+            schedule(lane);
+        }
+    }
+    
+    private static class Task {
+        private final Runnable runnable;
+        private final long enqueuedAt;
+        
+        Task(Runnable runnable, long enqueuedAt) {
+            this.runnable = runnable;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+    
+    private static class Lane {
+        private final String sessionId;
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong waitNanosTotal = new AtomicLong();
+        private final AtomicLong waitNanosMax = new AtomicLong();
+        
+        Lane(String sessionId) {
+            this.sessionId = sessionId;
+        }
+        
+        void recordWait(long waitNanos) {
+            waitNanosTotal.addAndGet(waitNanos);
+            waitNanosMax.accumulateAndGet(waitNanos, Math::max);
+        }
+        
+        Map<String, Object> getStats() {
+            long count = processed.get();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("queueDepth", depth.get());
+            stats.put("processed", count);
+            stats.put("rejected", rejected.get());
+            stats.put("avgWaitMicros", count > 0 ? waitNanosTotal.get() / count / 1000 : 0);
+            stats.put("maxWaitMicros", waitNanosMax.get() / 1000);
+            return stats;
+        }
+    }
+}
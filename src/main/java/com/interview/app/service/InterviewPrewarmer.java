@@ -0,0 +1,188 @@
+package com.interview.app.service;
+
+import com.interview.app.model.Candidate;
+import com.interview.app.model.Candidate.InterviewRound;
+import com.interview.app.repository.CandidateRepository;
+import com.interview.app.websocket.GeminiConnectionPool;
+import com.interview.app.websocket.GeminiSetupTemplates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens and sets up Gemini sessions shortly before scheduled interview rounds start.
+ *
+ * Every scan looks up rounds due within the lead time and warms a session for each, parked in
+ * the connection pool under the round's interview id. A candidate starting that round claims
+ * the session and gets its start reply immediately. Sessions still unclaimed a grace period
+ * after the scheduled time are closed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InterviewPrewarmer {
+    
+    private final CandidateRepository candidateRepository;
+    private final GeminiConnectionPool connectionPool;
+    private final GeminiSetupTemplates setupTemplates;
+    private final AdmissionController admissionController;
+    private final SessionPlacement sessionPlacement;
+    
+    // Interview id -> when its warm session is reclaimed, epoch millis
+    private final Map<String, Long> warmedRounds = new ConcurrentHashMap<>();
+    
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong scanFailures = new AtomicLong();
+    private final AtomicLong roundsWarmed = new AtomicLong();
+    private final AtomicLong setupsFailed = new AtomicLong();
+    private final AtomicLong roundsReclaimed = new AtomicLong();
+    private final AtomicLong roundsSkipped = new AtomicLong();
+    
+    @Value("${interview.prewarm.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${interview.prewarm.lead-time-ms:120000}")
+    private long leadTimeMs;
+    
+    @Value("${interview.prewarm.grace-period-ms:600000}")
+    private long gracePeriodMs;
+    
+    @Value("${interview.prewarm.max-sessions:20}")
+    private int maxSessions;
+    
+    @Value("${interview.config.setup-timeout-ms:15000}")
+    private long setupTimeoutMs;
+    
+    @Scheduled(fixedDelayString = "${interview.prewarm.scan-interval-ms:30000}")
+    public void prewarmUpcomingRounds() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        reclaimExpired(now);
+        
+        // Rounds already past their start are still worth warming within the grace period
+        LocalDateTime current = LocalDateTime.now();
+        List<Candidate> candidates;
+        try {
+            candidates = candidateRepository.findByRoundScheduledBetween(
+                current.minusNanos(TimeUnit.MILLISECONDS.toNanos(gracePeriodMs)),
+                current.plusNanos(TimeUnit.MILLISECONDS.toNanos(leadTimeMs)),
+                InterviewRound.InterviewStatus.TO_BE_STARTED);
+            scans.incrementAndGet();
+        } catch (RuntimeException e) {
+            scanFailures.incrementAndGet();
+            log.warn("Could not scan upcoming interview rounds: {}", e.getMessage());
+            return;
+        }
+        
+        for (Candidate candidate : candidates) {
+            for (InterviewRound round : candidate.getInterviewRounds()) {
+                if (isDue(round, current)) {
+                    prewarm(round, now);
+                }
+            }
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("leadTimeMs", leadTimeMs);
+        stats.put("gracePeriodMs", gracePeriodMs);
+        stats.put("warmRounds", warmedRounds.size());
+        stats.put("warmSessions", connectionPool.getWarmSessionCount());
+        stats.put("scans", scans.get());
+        stats.put("scanFailures", scanFailures.get());
+        stats.put("roundsWarmed", roundsWarmed.get());
+        stats.put("setupsFailed", setupsFailed.get());
+        stats.put("roundsReclaimed", roundsReclaimed.get());
+        stats.put("roundsSkipped", roundsSkipped.get());
+        return stats;
+    }
+    
+    private boolean isDue(InterviewRound round, LocalDateTime now) {
+        LocalDateTime scheduledAt = round.getScheduledAt();
+        return round.getInterviewId() != null
+            && round.getStatus() == InterviewRound.InterviewStatus.TO_BE_STARTED
+            && scheduledAt != null
+            && !scheduledAt.isAfter(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leadTimeMs)))
+            && !scheduledAt.isBefore(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(gracePeriodMs)));
+    }
+    
+    private void prewarm(InterviewRound round, long now) {
+        String interviewId = round.getInterviewId();
+        if (warmedRounds.containsKey(interviewId)) {
+            return;
+        }
+        // Only the node the round is placed on warms it, that is where the candidate is sent
+        if (!sessionPlacement.isLocal(interviewId)) {
+            return;
+        }
+        if (connectionPool.getWarmSessionCount() >= maxSessions) {
+            roundsSkipped.incrementAndGet();
+            return;
+        }
+        // Warm sessions hold a Gemini session too, so they take a counted slot, never one a waiting candidate needs
+        AdmissionController.Permit permit = admissionController.tryAcquire(connectionPool.getApiKeyId());
+        if (permit == null) {
+            roundsSkipped.incrementAndGet();
+            return;
+        }
+        
+        long expiresAt = round.getScheduledAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + gracePeriodMs;
+        GeminiSetupTemplates.Template template = setupTemplates.forInterview(round.getInterviewType(), round.getLevel());
+        CompletableFuture<Void> setup;
+        try {
+            // The slot goes back when the session leaves the pool; a claiming candidate holds their own
+            setup = connectionPool.prewarmSession(interviewId, template, () -> admissionController.release(permit));
+        } catch (RuntimeException e) {
+            admissionController.release(permit);
+            log.warn("Could not pre-warm Gemini session for interview {}: {}", interviewId, e.getMessage());
+            return;
+        }
+        warmedRounds.put(interviewId, Math.max(expiresAt, now));
+        if (setup == null) {
+            admissionController.release(permit);
+            return;
+        }
+        
+        roundsWarmed.incrementAndGet();
+        log.info("Pre-warming Gemini session for {} interview {} scheduled at {}",
+            round.getInterviewType(), interviewId, round.getScheduledAt());
+        setup.orTimeout(setupTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((ignored, error) -> {
+            if (error != null) {
+                setupsFailed.incrementAndGet();
+                log.warn("Pre-warm setup failed for interview {}: {}", interviewId, error.toString());
+                connectionPool.discardWarmSession(interviewId);
+                // Let the next scan try again
+                warmedRounds.remove(interviewId);
+            }
+        });
+    }
+    
+    /**
+     * Close warm sessions nobody claimed within the grace period
+     */
+    private void reclaimExpired(long now) {
+        warmedRounds.forEach((interviewId, expiresAt) -> {
+            if (now >= expiresAt && warmedRounds.remove(interviewId, expiresAt)) {
+                if (connectionPool.discardWarmSession(interviewId)) {
+                    roundsReclaimed.incrementAndGet();
+                }
+            }
+        });
+    }
+}
@@ -2,17 +2,42 @@ package com.interview.app.service;
 
 import com.interview.app.dto.InterviewMessage;
 import com.interview.app.dto.MediaChunk;
+import com.interview.app.dto.StartInterviewRequest;
+import com.interview.app.media.AudioCodec;
+import com.interview.app.media.FrameRateController;
+import com.interview.app.media.ImageFrameProcessor;
+import com.interview.app.media.PcmNormalizer;
+import com.interview.app.media.ResponseAudioAggregator;
+import com.interview.app.media.ScreenFrameFilter;
+import com.interview.app.media.VoiceActivityDetector;
+import com.interview.app.model.Candidate.InterviewRound;
+import com.interview.app.repository.CandidateRepository;
 import com.interview.app.websocket.GeminiWebSocketClient;
 import com.interview.app.websocket.GeminiConnectionPool;
+import com.interview.app.websocket.GeminiOutboundQueue;
+import com.interview.app.websocket.GeminiSetupTemplates;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -21,63 +46,449 @@ public class InterviewService {
     
     private final GeminiConnectionPool connectionPool;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ImageFrameProcessor imageFrameProcessor;
+    private final BargeInController bargeInController;
+    private final ScheduledExecutorService geminiOutboundExecutor;
+    private final GeminiSetupTemplates setupTemplates;
+    private final AdmissionController admissionController;
+    private final SessionRegistry sessionRegistry;
+    private final InterviewLaneDispatcher laneDispatcher;
+    private final CandidateRepository candidateRepository;
+    private final InboundRateLimiter rateLimiter;
     private final Map<String, InterviewSession> activeSessions = new ConcurrentHashMap<>();
     
-    public String startInterview(String userId) {
+    @Value("${interview.config.setup-timeout-ms:15000}")
+    private long setupTimeoutMs;
+    
+    @Value("${interview.vad.enabled:true}")
+    private boolean vadEnabled;
+    
+    @Value("${interview.vad.energy-threshold:500}")
+    private double vadEnergyThreshold;
+    
+    @Value("${interview.vad.max-zero-crossing-rate:0.35}")
+    private double vadMaxZeroCrossingRate;
+    
+    @Value("${interview.vad.hangover-ms:800}")
+    private long vadHangoverMs;
+    
+    @Value("${interview.vad.keep-alive-ms:2000}")
+    private long vadKeepAliveMs;
+    
+    @Value("${interview.audio.normalize.enabled:true}")
+    private boolean audioNormalizeEnabled;
+    
+    @Value("${interview.audio.normalize.target-rate:16000}")
+    private int audioTargetRate;
+    
+    @Value("${interview.audio.normalize.taps-per-phase:32}")
+    private int audioTapsPerPhase;
+    
+    @Value("${interview.audio.response.aggregate:true}")
+    private boolean responseAggregationEnabled;
+    
+    @Value("${interview.audio.response.frame-ms:80}")
+    private long responseFrameMs;
+    
+    @Value("${interview.audio.response.codecs:pcm,mulaw,ima-adpcm}")
+    private List<String> allowedResponseCodecs;
+    
+    @Value("${interview.text.coalesce.enabled:true}")
+    private boolean textCoalesceEnabled;
+    
+    @Value("${interview.text.coalesce.window-ms:150}")
+    private long textCoalesceWindowMs;
+    
+    @Value("${interview.text.coalesce.max-chars:200}")
+    private int textCoalesceMaxChars;
+    
+    @Value("${interview.text.coalesce.flush-on-punctuation:true}")
+    private boolean textCoalesceOnPunctuation;
+    
+    @Value("${interview.screen-filter.enabled:true}")
+    private boolean screenFilterEnabled;
+    
+    @Value("${interview.screen-filter.grid-size:64}")
+    private int screenFilterGridSize;
+    
+    @Value("${interview.screen-filter.cell-threshold:3}")
+    private int screenFilterCellThreshold;
+    
+    @Value("${interview.screen-filter.min-changed-cells:1}")
+    private int screenFilterMinChangedCells;
+    
+    @Value("${interview.screen-filter.max-staleness-ms:5000}")
+    private long screenFilterMaxStalenessMs;
+    
+    @Value("${interview.screen-filter.max-pixels:16777216}")
+    private long screenFilterMaxPixels;
+    
+    @Value("${interview.frame-rate.enabled:true}")
+    private boolean frameRateEnabled;
+    
+    @Value("${interview.frame-rate.min-fps:0.25}")
+    private double frameRateMinFps;
+    
+    @Value("${interview.frame-rate.max-fps:2}")
+    private double frameRateMaxFps;
+    
+    @Value("${interview.frame-rate.increase-step:0.25}")
+    private double frameRateIncreaseStep;
+    
+    @Value("${interview.frame-rate.latency-slo-ms:1500}")
+    private long frameRateLatencySloMs;
+    
+    @Value("${interview.frame-rate.buffered-bytes-limit:262144}")
+    private long frameRateBufferedBytesLimit;
+    
+    @Value("${interview.frame-rate.send-time-limit-micros:20000}")
+    private long frameRateSendTimeLimitMicros;
+    
+    @Value("${interview.frame-rate.adjust-interval-ms:1000}")
+    private long frameRateAdjustIntervalMs;
+    
+    /**
+     * Start an interview without blocking the caller. The returned future completes with the
+     * session id once Gemini has acknowledged the setup, or fails on timeout or disconnect.
+     */
+    public CompletableFuture<String> startInterview(String userId) {
+        return startInterview(userId, null, null);
+    }
+    
+    public CompletableFuture<String> startInterview(String userId, StartInterviewRequest request) {
+        return startInterview(userId, null, request);
+    }
+    
+    /**
+     * Start an interview once a session slot is free. Until then the user waits in the
+     * admission waiting room and, given a user name, gets position updates.
+     */
+    public CompletableFuture<String> startInterview(String userId, String userName, StartInterviewRequest request) {
+        return startInterview(userId, userName, request, null);
+    }
+    
+    /**
+     * Same as {@link #startInterview(String, String, StartInterviewRequest)} for a start made over
+     * the given STOMP session; its place in the waiting room goes if that session disconnects
+     */
+    public CompletableFuture<String> startInterview(String userId, String userName, StartInterviewRequest request,
+                                                    String clientSessionId) {
+        return admissionController.admit(userId, userName, connectionPool.getApiKeyId(), clientSessionId)
+            .thenCompose(permit -> {
+                try {
+                    return openSession(userId, userName, request, permit);
+                } catch (RuntimeException e) {
+                    admissionController.release(permit);
+                    throw e;
+                }
+            });
+    }
+    
+    private CompletableFuture<String> openSession(String userId, String userName, StartInterviewRequest request,
+                                                  AdmissionController.Permit permit) {
         String sessionId = UUID.randomUUID().toString();
         InterviewSession session = new InterviewSession(sessionId, userId);
+        session.admissionPermit = permit;
+        if (audioNormalizeEnabled) {
+            session.pcmNormalizer = new PcmNormalizer(audioTargetRate, audioTapsPerPhase);
+        }
+        if (textCoalesceEnabled) {
+            session.textCoalescer = new TextCoalescer(textCoalesceMaxChars, textCoalesceOnPunctuation);
+        }
+        AudioCodec codec = negotiateCodec(request);
+        if (responseAggregationEnabled || codec != AudioCodec.PCM) {
+            // Compressed codecs are applied per frame, so they always go through the aggregator
+            session.responseAudio = new ResponseAudioAggregator(responseFrameMs, codec);
+        }
+        if (vadEnabled) {
+            session.voiceActivityDetector = new VoiceActivityDetector(
+                vadEnergyThreshold, vadMaxZeroCrossingRate, vadHangoverMs, vadKeepAliveMs);
+        }
+        if (screenFilterEnabled) {
+            session.screenFrameFilter = new ScreenFrameFilter(
+                screenFilterGridSize, screenFilterCellThreshold, screenFilterMinChangedCells, screenFilterMaxStalenessMs,
+                screenFilterMaxPixels);
+        }
+        if (frameRateEnabled) {
+            session.frameRateController = new FrameRateController(
+                frameRateMinFps, frameRateMaxFps, frameRateIncreaseStep, frameRateLatencySloMs,
+                frameRateBufferedBytesLimit, frameRateSendTimeLimitMicros, frameRateAdjustIntervalMs);
+        }
         activeSessions.put(sessionId, session);
+        laneDispatcher.open(sessionId);
+        sessionRegistry.register(sessionId, userId);
         
-        // Get dedicated Gemini connection for this session
-        GeminiWebSocketClient geminiClient = connectionPool.getConnection(sessionId);
+        // A scheduled round may already have a set-up session waiting, see InterviewPrewarmer
+        InterviewRound round = scheduledRound(userName, request);
+        session.interviewId = round != null ? round.getInterviewId() : null;
+        GeminiWebSocketClient warmClient = round != null
+            ? connectionPool.claimWarmSession(round.getInterviewId(), sessionId)
+            : null;
         
         // Setup Gemini session handler
-        geminiClient.setupSession(sessionId, new GeminiWebSocketClient.SessionHandler() {
+        GeminiWebSocketClient.SessionHandler handler = new GeminiWebSocketClient.SessionHandler() {
             @Override
             public void onSetupComplete() {
+                // The client learns the session id from the start reply, sent once setup completes;
+                // it cannot be subscribed to the session topic yet, so nothing is pushed there
                 log.info("Gemini setup complete for session: {}", sessionId);
-                sendMessageToClient(sessionId, "SETUP_COMPLETE", null, null);
             }
             
             @Override
             public void onAudioData(String mimeType, String base64Data) {
-                MediaChunk audioChunk = new MediaChunk(mimeType, base64Data);
-                sendMessageToClient(sessionId, "AUDIO_RESPONSE", null, List.of(audioChunk));
+                session.lastOutboundAt = System.currentTimeMillis();
+                session.recordReplyAudio();
+                ResponseAudioAggregator aggregator = session.responseAudio;
+                if (aggregator == null) {
+                    MediaChunk audioChunk = new MediaChunk(mimeType, base64Data);
+                    sendAudioToClient(sessionId, List.of(audioChunk), null, null);
+                    return;
+                }
+                for (ResponseAudioAggregator.Frame frame : aggregator.append(mimeType, base64Data)) {
+                    sendAudioFrame(sessionId, frame);
+                }
             }
             
             @Override
             public void onTextResponse(String text) {
-                sendMessageToClient(sessionId, "TEXT_RESPONSE", text, null);
+                session.lastOutboundAt = System.currentTimeMillis();
+                TextCoalescer coalescer = session.textCoalescer;
+                if (coalescer == null) {
+                    session.appendTurnText(text);
+                    sendMessageToClient(sessionId, "TEXT_RESPONSE", text, null);
+                    return;
+                }
+                
+                // Sending under the coalescer's lock keeps timer flushes and inline flushes in order
+                synchronized (coalescer) {
+                    boolean armTimer = !coalescer.hasBuffered();
+                    String ready = coalescer.append(text);
+                    if (ready != null) {
+                        sendMessageToClient(sessionId, "TEXT_RESPONSE", ready, null);
+                        // Text after the sentence boundary stays buffered and needs a timer of its own
+                        if (coalescer.hasBuffered()) {
+                            scheduleTextFlush(session);
+                        }
+                    } else if (armTimer) {
+                        scheduleTextFlush(session);
+                    }
+                }
             }
             
             @Override
             public void onTurnComplete() {
+                ResponseAudioAggregator aggregator = session.responseAudio;
+                ResponseAudioAggregator.Frame tail = aggregator != null ? aggregator.flush() : null;
+                if (tail != null) {
+                    sendAudioFrame(sessionId, tail);
+                }
+                // The turn's text already went out as TEXT_RESPONSE; it is kept for the round's transcript only
+                finishTextTurn(session);
                 sendMessageToClient(sessionId, "TURN_COMPLETE", null, null);
             }
             
             @Override
             public void onInterrupted() {
                 log.info("Gemini interrupted for session: {}", sessionId);
-                sendMessageToClient(sessionId, "INTERRUPTED", null, null);
+                // Make queued audio stale first, so the notice overtakes it
+                long generation = bargeInController.interrupt(sessionId);
+                if (session.responseAudio != null) {
+                    session.responseAudio.discard();
+                }
+                finishTextTurn(session);
+                sendInterruptToClient(sessionId, generation);
             }
             
             @Override
             public void onDisconnect() {
                 log.warn("Gemini disconnected for session: {}", sessionId);
+                if (session.responseAudio != null) {
+                    session.responseAudio.discard();
+                }
                 sendMessageToClient(sessionId, "DISCONNECTED", null, null);
             }
+            
+            @Override
+            public void onReconnecting(int attempt) {
+                log.info("Reconnecting Gemini for session: {} (attempt {})", sessionId, attempt);
+                sendMessageToClient(sessionId, "RECONNECTING", String.valueOf(attempt), null);
+            }
+            
+            @Override
+            public void onReconnected() {
+                log.info("Gemini reconnected for session: {}", sessionId);
+                sendMessageToClient(sessionId, "RECONNECTED", null, null);
+            }
+        };
+        
+        CompletableFuture<Void> setup;
+        if (warmClient != null) {
+            setup = warmClient.adoptSession(sessionId, handler);
+        } else {
+            // Setup message is pre-serialized per interview type and level; a scheduled round sets its own
+            GeminiSetupTemplates.Template template;
+            if (round != null) {
+                template = setupTemplates.forInterview(round.getInterviewType(), round.getLevel());
+            } else if (request != null) {
+                template = setupTemplates.forInterview(request.getInterviewType(), request.getLevel());
+            } else {
+                template = setupTemplates.defaultTemplate();
+            }
+            setup = connectionPool.getConnection(sessionId).setupSession(sessionId, template, handler);
+        }
+        
+        session.setupFuture = setup.orTimeout(setupTimeoutMs, TimeUnit.MILLISECONDS)
+            .thenApply(ignored -> sessionId);
+        session.setupFuture.whenComplete((id, error) -> {
+            if (error != null) {
+                log.error("Gemini setup failed for session: {}", sessionId, error);
+                if (activeSessions.remove(sessionId, session)) {
+                    laneDispatcher.close(sessionId);
+                    sessionRegistry.unregister(sessionId);
+                    admissionController.release(permit);
+                    bargeInController.remove(sessionId);
+                    connectionPool.closeConnectionAsync(sessionId);
+                }
+            }
         });
         
         log.info("Started interview session: {} for user: {}", sessionId, userId);
-        return sessionId;
+        return session.setupFuture;
+    }
+    
+    /**
+     * The round named in the request, if it is a round of the signed-in candidate that has not
+     * started yet. The round is looked up by the user's email so a client cannot claim another
+     * candidate's warm session.
+     */
+    private InterviewRound scheduledRound(String email, StartInterviewRequest request) {
+        if (request == null || request.getInterviewId() == null || email == null) {
+            return null;
+        }
+        String interviewId = request.getInterviewId();
+        InterviewRound round = null;
+        try {
+            round = candidateRepository.findByEmail(email)
+                .flatMap(candidate -> candidate.getInterviewRounds().stream()
+                    .filter(candidateRound -> interviewId.equals(candidateRound.getInterviewId())
+                        && candidateRound.getStatus() == InterviewRound.InterviewStatus.TO_BE_STARTED)
+                    .findFirst())
+                .orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Could not look up interview {} for {}: {}", interviewId, email, e.getMessage());
+        }
+        if (round == null) {
+            log.warn("Interview {} is not a pending round of {}, starting without it", interviewId, email);
+        }
+        return round;
+    }
+    
+    private void scheduleTextFlush(InterviewSession session) {
+        try {
+            geminiOutboundExecutor.schedule(() -> {
+                TextCoalescer coalescer = session.textCoalescer;
+                synchronized (coalescer) {
+                    String text = coalescer.flush();
+                    if (text != null && activeSessions.get(session.sessionId) == session) {
+                        sendMessageToClient(session.sessionId, "TEXT_RESPONSE", text, null);
+                    }
+                }
+            }, textCoalesceWindowMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule text flush for session: {}", session.sessionId);
+        }
+    }
+    
+    /**
+     * Send any text still buffered, record the turn in the session transcript and return its text
+     */
+    private String finishTextTurn(InterviewSession session) {
+        TextCoalescer coalescer = session.textCoalescer;
+        if (coalescer == null) {
+            return session.completeTurnText();
+        }
+        String turnText;
+        synchronized (coalescer) {
+            String remaining = coalescer.flush();
+            if (remaining != null) {
+                sendMessageToClient(session.sessionId, "TEXT_RESPONSE", remaining, null);
+            }
+            turnText = coalescer.completeTurn();
+        }
+        if (turnText != null) {
+            session.transcript.add(turnText);
+        }
+        return turnText;
+    }
+    
+    /**
+     * Store the model text of each completed turn on the scheduled round the session ran. Runs on a
+     * virtual thread so that ending a session does not wait on Mongo.
+     */
+    private void saveTranscript(InterviewSession session) {
+        String interviewId = session.interviewId;
+        if (interviewId == null || session.transcript.isEmpty()) {
+            return;
+        }
+        List<String> transcript = List.copyOf(session.transcript);
+        Thread.ofVirtual().name("transcript-save").start(() -> {
+            try {
+                candidateRepository.saveRoundTranscript(interviewId, transcript);
+                log.info("Saved {} transcript turns for interview: {}", transcript.size(), interviewId);
+            } catch (RuntimeException e) {
+                log.error("Could not save transcript of interview: {}", interviewId, e);
+            }
+        });
+    }
+    
+    /**
+     * Downstream codec asked for by the client, if enabled; raw PCM otherwise
+     */
+    private AudioCodec negotiateCodec(StartInterviewRequest request) {
+        if (request == null || request.getAudioCodec() == null) {
+            return AudioCodec.PCM;
+        }
+        AudioCodec codec = AudioCodec.fromId(request.getAudioCodec());
+        if (!allowedResponseCodecs.contains(codec.getId())) {
+            log.warn("Audio codec {} is not enabled, using PCM", request.getAudioCodec());
+            return AudioCodec.PCM;
+        }
+        return codec;
     }
     
     public void endInterview(String sessionId) {
+        endInterview(sessionId, true);
+    }
+    
+    /**
+     * End a session, optionally without waiting for Gemini to acknowledge the close, for callers
+     * that must not block
+     */
+    public void endInterview(String sessionId, boolean awaitClose) {
         InterviewSession session = activeSessions.remove(sessionId);
         if (session != null) {
+            laneDispatcher.close(sessionId);
+            sessionRegistry.unregister(sessionId);
+            admissionController.release(session.admissionPermit);
+            bargeInController.remove(sessionId);
+            rateLimiter.removeSession(sessionId);
+            saveTranscript(session);
+            
+            // Abandon a setup that is still in flight
+            if (session.setupFuture != null && !session.setupFuture.isDone()) {
+                session.setupFuture.cancel(false);
+                connectionPool.closeConnectionAsync(sessionId);
+                log.info("Cancelled pending setup for session: {}", sessionId);
+                return;
+            }
+            
             // Remove and close the dedicated connection for this session
-            connectionPool.removeConnection(sessionId);
-            log.info("Ended interview session: {}", sessionId);
+            if (awaitClose) {
+                connectionPool.removeConnection(sessionId);
+            } else {
+                connectionPool.closeConnectionAsync(sessionId);
+            }
+            log.info("Ended interview session: {}. Stats: {}", sessionId, session.getStats());
         }
     }
     
@@ -89,20 +500,33 @@ public class InterviewService {
             log.error("No active session found for: {}", sessionId);
             return;
         }
+        session.lastInboundAt = System.currentTimeMillis();
         
-        // Get the dedicated connection for this session
-        GeminiWebSocketClient geminiClient = connectionPool.getConnection(sessionId);
+        // Only the connection the session already holds; once it has been released the message is dropped
+        GeminiWebSocketClient geminiClient = connectionPool.findConnection(sessionId);
+        if (geminiClient == null) {
+            log.debug("Dropping message for session without a connection: {}", sessionId);
+            return;
+        }
         
         switch (message.getType()) {
             case TEXT:
                 geminiClient.sendTextMessage(sessionId, message.getContent());
                 break;
             case AUDIO:
+                if (message.getMediaChunks() != null && !message.getMediaChunks().isEmpty()) {
+                    forwardAudio(session, message.getMediaChunks());
+                }
+                break;
+            case MIXED:
+                if (message.getMediaChunks() != null && !message.getMediaChunks().isEmpty()) {
+                    forwardMixed(session, message.getMediaChunks());
+                }
+                break;
             case VIDEO:
             case SCREEN_SHARE:
-            case MIXED:
                 if (message.getMediaChunks() != null && !message.getMediaChunks().isEmpty()) {
-                    geminiClient.sendRealtimeInput(sessionId, message.getMediaChunks());
+                    forwardFrames(session, message.getMediaChunks());
                 }
                 break;
             case CONTROL:
@@ -111,6 +535,238 @@ public class InterviewService {
         }
     }
     
+    /**
+     * Send candidate audio upstream: PCM is converted to 16 kHz mono, then silent frames are
+     * dropped when VAD is enabled
+     */
+    private void forwardAudio(InterviewSession session, List<MediaChunk> mediaChunks) {
+        PcmNormalizer normalizer = session.pcmNormalizer;
+        VoiceActivityDetector vad = session.voiceActivityDetector;
+        if (normalizer == null && vad == null) {
+            enqueueAudio(session, mediaChunks);
+            return;
+        }
+        
+        List<MediaChunk> forward = new ArrayList<>(mediaChunks.size());
+        for (MediaChunk chunk : mediaChunks) {
+            if (!VoiceActivityDetector.isPcm(chunk)) {
+                forward.add(chunk);
+            } else if (normalizer == null) {
+                forward.addAll(vad.filter(chunk));
+            } else {
+                // Hold the normalizer so its decoded output stays valid until VAD has read it
+                synchronized (normalizer) {
+                    MediaChunk normalized = normalizer.normalize(chunk);
+                    if (normalized == null) {
+                        log.debug("Dropping audio in unsupported format {} for session: {}",
+                            chunk.getMimeType(), session.sessionId);
+                    } else if (vad == null) {
+                        forward.add(normalized);
+                    } else {
+                        forward.addAll(vad.filter(normalized, normalizer.getOutput(), normalizer.getOutputLength(),
+                            System.currentTimeMillis()));
+                    }
+                }
+            }
+        }
+        
+        if (!forward.isEmpty()) {
+            enqueueAudio(session, forward);
+        }
+    }
+    
+    /**
+     * Split a message carrying both audio and frames, so each part gets its own processing and lane
+     */
+    private void forwardMixed(InterviewSession session, List<MediaChunk> mediaChunks) {
+        List<MediaChunk> audio = new ArrayList<>(mediaChunks.size());
+        List<MediaChunk> frames = new ArrayList<>(mediaChunks.size());
+        for (MediaChunk chunk : mediaChunks) {
+            String mimeType = chunk.getMimeType();
+            boolean frame = mimeType != null && (mimeType.startsWith("image/") || mimeType.startsWith("video/"));
+            (frame ? frames : audio).add(chunk);
+        }
+        if (!audio.isEmpty()) {
+            forwardAudio(session, audio);
+        }
+        if (!frames.isEmpty()) {
+            forwardFrames(session, frames);
+        }
+    }
+    
+    private void enqueueAudio(InterviewSession session, List<MediaChunk> mediaChunks) {
+        GeminiOutboundQueue outboundQueue = outboundQueue(session.sessionId);
+        if (outboundQueue != null) {
+            outboundQueue.enqueueAudio(mediaChunks);
+        }
+    }
+    
+    /**
+     * The outbound queue of a session's connection, or null once the connection has been released
+     */
+    private GeminiOutboundQueue outboundQueue(String sessionId) {
+        GeminiOutboundQueue outboundQueue = connectionPool.findOutboundQueue(sessionId);
+        if (outboundQueue == null) {
+            log.debug("Dropping media for session without a connection: {}", sessionId);
+        }
+        return outboundQueue;
+    }
+    
+    /**
+     * Send screen/video frames upstream, skipping frames that have not meaningfully changed
+     */
+    private void forwardFrames(InterviewSession session, List<MediaChunk> mediaChunks) {
+        GeminiOutboundQueue outboundQueue = outboundQueue(session.sessionId);
+        if (outboundQueue == null) {
+            return;
+        }
+        FrameRateController rateController = session.frameRateController;
+        long now = System.currentTimeMillis();
+        
+        if (rateController != null) {
+            double suggestedFps = rateController.adjust(now, outboundQueue.getBufferedBytes(), outboundQueue.getRecentSendMicros());
+            if (suggestedFps > 0) {
+                log.info("Suggesting {} fps to client for session: {}", suggestedFps, session.sessionId);
+                sendControlToClient(session.sessionId, "{\"action\":\"SET_FRAME_RATE\",\"fps\":" + suggestedFps + "}");
+            }
+            if (!rateController.allows(now)) {
+                return;
+            }
+        }
+        
+        if (imageFrameProcessor.isEnabled() && mediaChunks.stream().anyMatch(ScreenFrameFilter::isImage)) {
+            // Latest frame wins while an earlier one is still being processed
+            if (session.pendingFrame.getAndSet(mediaChunks) != null) {
+                session.framesSuperseded.incrementAndGet();
+            }
+            scheduleFrameProcessing(session);
+            return;
+        }
+        
+        ScreenFrameFilter filter = session.screenFrameFilter;
+        List<MediaChunk> forward = mediaChunks;
+        if (filter != null) {
+            forward = new ArrayList<>(mediaChunks.size());
+            for (MediaChunk chunk : mediaChunks) {
+                if (!ScreenFrameFilter.isImage(chunk) || filter.shouldSend(chunk)) {
+                    forward.add(chunk);
+                }
+            }
+        }
+        
+        if (!forward.isEmpty()) {
+            outboundQueue.enqueueVideo(forward);
+            if (rateController != null) {
+                rateController.onForwarded(now);
+            }
+        }
+    }
+    
+    private void scheduleFrameProcessing(InterviewSession session) {
+        if (!session.frameInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        if (!imageFrameProcessor.execute(() -> processFrames(session))) {
+            session.frameInFlight.set(false);
+            if (session.pendingFrame.getAndSet(null) != null) {
+                session.framesSuperseded.incrementAndGet();
+            }
+            log.debug("Image pool saturated, dropped frame for session: {}", session.sessionId);
+        }
+    }
+    
+    /**
+     * Runs on the image pool: change detection, then downscale and re-encode, decoding each frame once
+     */
+    private void processFrames(InterviewSession session) {
+        try {
+            List<MediaChunk> frame;
+            while ((frame = session.pendingFrame.getAndSet(null)) != null) {
+                List<MediaChunk> forward = new ArrayList<>(frame.size());
+                for (MediaChunk chunk : frame) {
+                    if (!ScreenFrameFilter.isImage(chunk)) {
+                        forward.add(chunk);
+                        continue;
+                    }
+                    Supplier<BufferedImage> image = imageFrameProcessor.decoder(chunk);
+                    ScreenFrameFilter filter = session.screenFrameFilter;
+                    if (filter == null || filter.shouldSend(chunk, image)) {
+                        forward.add(imageFrameProcessor.process(chunk, image.get()));
+                    }
+                }
+                
+                GeminiOutboundQueue outboundQueue = activeSessions.get(session.sessionId) == session
+                    ? outboundQueue(session.sessionId) : null;
+                if (!forward.isEmpty() && outboundQueue != null) {
+                    outboundQueue.enqueueVideo(forward);
+                    if (session.frameRateController != null) {
+                        session.frameRateController.onForwarded(System.currentTimeMillis());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error processing frames for session: {}", session.sessionId, e);
+        } finally {
+            session.frameInFlight.set(false);
+        }
+        
+        // Pick up a frame that arrived after the loop observed an empty slot
+        if (session.pendingFrame.get() != null) {
+            scheduleFrameProcessing(session);
+        }
+    }
+    
+    /**
+     * Start and last activity times of every active session, for the session reaper
+     */
+    public List<SessionActivity> getSessionActivity() {
+        List<SessionActivity> activity = new ArrayList<>(activeSessions.size());
+        activeSessions.forEach((sessionId, session) -> activity.add(new SessionActivity(
+            sessionId, session.startTime, Math.max(session.lastInboundAt, session.lastOutboundAt))));
+        return activity;
+    }
+    
+    public SessionActivity getSessionActivity(String sessionId) {
+        InterviewSession session = activeSessions.get(sessionId);
+        return session != null
+            ? new SessionActivity(sessionId, session.startTime, Math.max(session.lastInboundAt, session.lastOutboundAt))
+            : null;
+    }
+    
+    public boolean isActive(String sessionId) {
+        return activeSessions.containsKey(sessionId);
+    }
+    
+    /**
+     * Whether the session is live on this node and was started by the given user
+     */
+    public boolean isOwnedBy(String sessionId, String userId) {
+        InterviewSession session = sessionId != null ? activeSessions.get(sessionId) : null;
+        return session != null && session.userId.equals(userId);
+    }
+    
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+    
+    /**
+     * Tell every session's client that this server is draining and by when (epoch millis) the
+     * session will be ended, so the candidate can wrap up or reconnect elsewhere
+     */
+    public void notifyDraining(long endsAt) {
+        activeSessions.keySet().forEach(sessionId ->
+            sendMessageToClient(sessionId, "DRAINING", String.valueOf(endsAt), null));
+    }
+    
+    /**
+     * Media pipeline statistics for every active session
+     */
+    public Map<String, Map<String, Object>> getSessionStats() {
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        activeSessions.forEach((sessionId, session) -> stats.put(sessionId, session.getStats()));
+        return stats;
+    }
+    
     private void handleControlMessage(String sessionId, InterviewMessage message) {
         // Handle control messages like pause, resume, etc.
         log.debug("Handling control message for session: {}", sessionId);
@@ -119,7 +775,7 @@ public class InterviewService {
     private void sendMessageToClient(String sessionId, String type, String content, List<MediaChunk> mediaChunks) {
         InterviewMessage response = new InterviewMessage();
         response.setSessionId(sessionId);
-        response.setType(InterviewMessage.MessageType.valueOf(type.contains("AUDIO") ? "AUDIO" : "TEXT"));
+        response.setType(messageType(type));
         response.setContent(content);
         response.setMediaChunks(mediaChunks);
         response.setTimestamp(System.currentTimeMillis());
@@ -127,21 +783,189 @@ public class InterviewService {
         messagingTemplate.convertAndSend("/topic/interview/" + sessionId, response);
     }
     
+    /**
+     * Status events that have a message type of their own keep it; anything else is audio or text
+     */
+    private static InterviewMessage.MessageType messageType(String type) {
+        for (InterviewMessage.MessageType candidate : InterviewMessage.MessageType.values()) {
+            if (candidate.name().equals(type)) {
+                return candidate;
+            }
+        }
+        return type.contains("AUDIO") ? InterviewMessage.MessageType.AUDIO : InterviewMessage.MessageType.TEXT;
+    }
+    
+    private void sendAudioFrame(String sessionId, ResponseAudioAggregator.Frame frame) {
+        sendAudioToClient(sessionId, List.of(new MediaChunk(frame.getMimeType(), frame.getData())),
+            frame.getSequence(), frame.getMediaTimestamp());
+    }
+    
+    /**
+     * Model audio, stamped with the session's audio generation so that it can be dropped on
+     * the outbound channel if the candidate interrupts before it is sent
+     */
+    private void sendAudioToClient(String sessionId, List<MediaChunk> mediaChunks, Long sequence, Long mediaTimestamp) {
+        long generation = bargeInController.current(sessionId);
+        
+        InterviewMessage response = new InterviewMessage();
+        response.setSessionId(sessionId);
+        response.setType(InterviewMessage.MessageType.AUDIO);
+        response.setMediaChunks(mediaChunks);
+        response.setSequence(sequence);
+        response.setMediaTimestamp(mediaTimestamp);
+        response.setGeneration(generation);
+        response.setTimestamp(System.currentTimeMillis());
+        
+        messagingTemplate.convertAndSend("/topic/interview/" + sessionId, response,
+            Map.of(BargeInController.GENERATION_HEADER, String.valueOf(generation)));
+    }
+    
+    private void sendInterruptToClient(String sessionId, long generation) {
+        InterviewMessage response = new InterviewMessage();
+        response.setSessionId(sessionId);
+        response.setType(InterviewMessage.MessageType.INTERRUPTED);
+        response.setGeneration(generation);
+        response.setTimestamp(System.currentTimeMillis());
+        
+        messagingTemplate.convertAndSend("/topic/interview/" + sessionId, response,
+            Map.of(BargeInController.INTERRUPT_HEADER, String.valueOf(generation)));
+    }
+    
+    private void sendControlToClient(String sessionId, String content) {
+        InterviewMessage response = new InterviewMessage();
+        response.setSessionId(sessionId);
+        response.setType(InterviewMessage.MessageType.CONTROL);
+        response.setContent(content);
+        response.setTimestamp(System.currentTimeMillis());
+        
+        messagingTemplate.convertAndSend("/topic/interview/" + sessionId, response);
+    }
+    
+    /**
+     * Media posted over REST, one chunk at a time
+     */
+    public void streamMedia(String sessionId, List<MediaChunk> chunks) {
+        for (MediaChunk chunk : chunks) {
+            sendMediaToGemini(sessionId, List.of(chunk));
+        }
+    }
+    
     public void sendMediaToGemini(String sessionId, List<MediaChunk> mediaChunks) {
         // Direct method for sending media to Gemini, bypassing STOMP
-        GeminiWebSocketClient geminiClient = connectionPool.getConnection(sessionId);
-        geminiClient.sendRealtimeInput(sessionId, mediaChunks);
+        InterviewSession session = activeSessions.get(sessionId);
+        if (session == null) {
+            // Never open a connection for a session that was not admitted or has ended
+            log.debug("Dropping media for inactive session: {}", sessionId);
+            return;
+        }
+        session.lastInboundAt = System.currentTimeMillis();
+        if (mediaChunks.stream().anyMatch(VoiceActivityDetector::isPcm)) {
+            forwardAudio(session, mediaChunks);
+            return;
+        }
+        if (mediaChunks.stream().allMatch(ScreenFrameFilter::isImage)) {
+            forwardFrames(session, mediaChunks);
+            return;
+        }
+        
+        GeminiOutboundQueue outboundQueue = outboundQueue(sessionId);
+        if (outboundQueue != null) {
+            outboundQueue.enqueue(mediaChunks);
+        }
+    }
+    
+    @lombok.Value
+    public static class SessionActivity {
+        String sessionId;
+        long startedAt;
+        long lastActivityAt;
     }
     
     private static class InterviewSession {
         private final String sessionId;
         private final String userId;
         private final long startTime;
+        private volatile long lastInboundAt;
+        private volatile long lastOutboundAt;
+        private volatile CompletableFuture<String> setupFuture;
+        private volatile AdmissionController.Permit admissionPermit;
+        private volatile String interviewId;
+        private volatile PcmNormalizer pcmNormalizer;
+        private volatile ResponseAudioAggregator responseAudio;
+        private volatile TextCoalescer textCoalescer;
+        private final List<String> transcript = new CopyOnWriteArrayList<>();
+        private final StringBuilder turnText = new StringBuilder();
+        private volatile VoiceActivityDetector voiceActivityDetector;
+        private volatile ScreenFrameFilter screenFrameFilter;
+        private volatile FrameRateController frameRateController;
+        private final AtomicReference<List<MediaChunk>> pendingFrame = new AtomicReference<>();
+        private final AtomicBoolean frameInFlight = new AtomicBoolean(false);
+        private final AtomicLong framesSuperseded = new AtomicLong();
         
         public InterviewSession(String sessionId, String userId) {
             this.sessionId = sessionId;
             this.userId = userId;
             this.startTime = System.currentTimeMillis();
+            this.lastInboundAt = startTime;
+            this.lastOutboundAt = startTime;
+        }
+        
+        /**
+         * Turn text accumulation when the coalescer is disabled
+         */
+        synchronized void appendTurnText(String text) {
+            turnText.append(text);
+        }
+        
+        synchronized String completeTurnText() {
+            if (turnText.length() == 0) {
+                return null;
+            }
+            String text = turnText.toString();
+            turnText.setLength(0);
+            transcript.add(text);
+            return text;
+        }
+        
+        /**
+         * Feed reply latency (end of candidate speech to first reply audio) to the frame-rate
+         * controller. Needs VAD, since without it the candidate never stops "speaking".
+         */
+        void recordReplyAudio() {
+            FrameRateController rateController = frameRateController;
+            VoiceActivityDetector vad = voiceActivityDetector;
+            if (rateController != null && vad != null) {
+                rateController.recordReply(vad.getLastVoicedAt(), System.currentTimeMillis());
+            }
+        }
+        
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("userId", userId);
+            stats.put("startTime", startTime);
+            stats.put("lastInboundAt", lastInboundAt);
+            stats.put("lastOutboundAt", lastOutboundAt);
+            stats.put("framesSuperseded", framesSuperseded.get());
+            if (pcmNormalizer != null) {
+                stats.put("audioNormalizer", pcmNormalizer.getStats());
+            }
+            stats.put("transcriptTurns", transcript.size());
+            if (textCoalescer != null) {
+                stats.put("textCoalescer", textCoalescer.getStats());
+            }
+            if (responseAudio != null) {
+                stats.put("responseAudio", responseAudio.getStats());
+            }
+            if (voiceActivityDetector != null) {
+                stats.put("vad", voiceActivityDetector.getStats());
+            }
+            if (screenFrameFilter != null) {
+                stats.put("screenFilter", screenFrameFilter.getStats());
+            }
+            if (frameRateController != null) {
+                stats.put("frameRate", frameRateController.getStats());
+            }
+            return stats;
         }
     }
 }
@@ -0,0 +1,65 @@
+package com.interview.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node registry: every session known here is owned here
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.registry", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalSessionRegistry implements SessionRegistry {
+    
+    private final Member localMember;
+    
+    // Session id -> user id
+    private final Map<String, String> sessions = new ConcurrentHashMap<>();
+    private volatile boolean leaving;
+    
+    @Override
+    public Member self() {
+        return localMember;
+    }
+    
+    @Override
+    public void register(String sessionId, String userId) {
+        sessions.put(sessionId, userId != null ? userId : "");
+    }
+    
+    @Override
+    public void unregister(String sessionId) {
+        sessions.remove(sessionId);
+    }
+    
+    @Override
+    public Member ownerOf(String sessionId) {
+        return sessions.containsKey(sessionId) ? localMember : null;
+    }
+    
+    @Override
+    public List<Member> liveMembers() {
+        return leaving ? List.of() : List.of(localMember);
+    }
+    
+    @Override
+    public void leave() {
+        leaving = true;
+    }
+    
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("registry", "local");
+        stats.put("nodeId", localMember.getNodeId());
+        stats.put("leaving", leaving);
+        stats.put("ownedSessions", sessions.size());
+        return stats;
+    }
+}
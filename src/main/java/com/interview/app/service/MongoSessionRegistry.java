@@ -0,0 +1,230 @@
+package com.interview.app.service;
+
+import com.interview.app.model.ClusterNode;
+import com.interview.app.model.SessionOwner;
+import com.interview.app.repository.ClusterNodeRepository;
+import com.interview.app.repository.SessionOwnerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session registry shared through MongoDB.
+ *
+ * Every node heartbeats into {@code cluster_nodes}; a node whose heartbeat is older than the
+ * node TTL is treated as gone, along with the sessions it owned. Ownership writes go through a
+ * single background thread, so starting and ending sessions never waits on the database and a
+ * session's register always lands before its unregister. Owner lookups for other nodes'
+ * sessions are cached briefly, as misrouted media for a session tends to come in streams.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cluster.registry", havingValue = "mongo")
+@RequiredArgsConstructor
+public class MongoSessionRegistry implements SessionRegistry {
+    
+    private final Member localMember;
+    private final SessionOwnerRepository sessionOwnerRepository;
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final MongoTemplate mongoTemplate;
+    
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-registry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Member> ownedSessions = new ConcurrentHashMap<>();
+    private final Map<String, CachedOwner> ownerCache = new ConcurrentHashMap<>();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    
+    // Node id -> member, for nodes with a fresh heartbeat
+    private volatile Map<String, Member> aliveNodes = Map.of();
+    private volatile List<Member> liveMembers = List.of();
+    private volatile boolean leaving;
+    
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong heartbeatFailures = new AtomicLong();
+    
+    @Value("${cluster.node-ttl-ms:15000}")
+    private long nodeTtlMs;
+    
+    @Value("${cluster.owner-cache-ttl-ms:10000}")
+    private long ownerCacheTtlMs;
+    
+    /**
+     * Create the indexes declared on the registry's documents, including the TTL that clears
+     * owner records left behind by dead nodes. Spring Data does not create them on its own while
+     * auto index creation is off.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(
+            mongoTemplate.getConverter().getMappingContext());
+        write(() -> {
+            for (Class<?> document : List.of(SessionOwner.class, ClusterNode.class)) {
+                IndexOperations indexOps = mongoTemplate.indexOps(document);
+                resolver.resolveIndexFor(document).forEach(indexOps::ensureIndex);
+            }
+            log.info("Ensured session registry indexes");
+        });
+    }
+    
+    @Override
+    public Member self() {
+        return localMember;
+    }
+    
+    @Override
+    public void register(String sessionId, String userId) {
+        ownedSessions.put(sessionId, localMember);
+        write(() -> sessionOwnerRepository.save(new SessionOwner(sessionId, localMember.getNodeId(),
+            localMember.getUrl(), userId, LocalDateTime.now())));
+    }
+    
+    @Override
+    public void unregister(String sessionId) {
+        if (ownedSessions.remove(sessionId) != null) {
+            write(() -> sessionOwnerRepository.deleteById(sessionId));
+        }
+    }
+    
+    @Override
+    public Member ownerOf(String sessionId) {
+        if (ownedSessions.containsKey(sessionId)) {
+            return localMember;
+        }
+        lookups.incrementAndGet();
+        long now = System.currentTimeMillis();
+        CachedOwner cached = ownerCache.get(sessionId);
+        if (cached != null && cached.expiresAt > now) {
+            cacheHits.incrementAndGet();
+            return cached.member;
+        }
+        
+        Member owner = null;
+        try {
+            owner = sessionOwnerRepository.findById(sessionId)
+                .map(record -> aliveNodes.get(record.getNodeId()))
+                .orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("Could not look up owner of session {}: {}", sessionId, e.getMessage());
+        }
+        if (owner != null) {
+            ownerCache.put(sessionId, new CachedOwner(owner, now + ownerCacheTtlMs));
+        } else {
+            ownerCache.remove(sessionId);
+        }
+        return owner;
+    }
+    
+    @Override
+    public List<Member> liveMembers() {
+        return liveMembers;
+    }
+    
+    @Override
+    public void leave() {
+        leaving = true;
+        write(this::heartbeat);
+    }
+    
+    /**
+     * Refresh this node's heartbeat and the view of which nodes are up
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            clusterNodeRepository.save(new ClusterNode(localMember.getNodeId(), localMember.getUrl(), leaving,
+                startedAt, now));
+            
+            Map<String, Member> alive = new HashMap<>();
+            List<Member> accepting = new ArrayList<>();
+            for (ClusterNode node : clusterNodeRepository.findByLastHeartbeatAtAfter(
+                    now.minusNanos(TimeUnit.MILLISECONDS.toNanos(nodeTtlMs)))) {
+                Member member = new Member(node.getNodeId(), node.getUrl());
+                alive.put(node.getNodeId(), member);
+                if (!node.isLeaving()) {
+                    accepting.add(member);
+                }
+            }
+            aliveNodes = alive;
+            liveMembers = List.copyOf(accepting);
+        } catch (RuntimeException e) {
+            heartbeatFailures.incrementAndGet();
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+        
+        long cutoff = System.currentTimeMillis();
+        ownerCache.values().removeIf(cached -> cached.expiresAt <= cutoff);
+    }
+    
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("registry", "mongo");
+        stats.put("nodeId", localMember.getNodeId());
+        stats.put("leaving", leaving);
+        stats.put("ownedSessions", ownedSessions.size());
+        stats.put("aliveNodes", aliveNodes.keySet());
+        stats.put("acceptingNodes", liveMembers.size());
+        stats.put("ownerLookups", lookups.get());
+        stats.put("ownerCacheHits", cacheHits.get());
+        stats.put("ownerCacheSize", ownerCache.size());
+        stats.put("writeFailures", writeFailures.get());
+        stats.put("heartbeatFailures", heartbeatFailures.get());
+        return stats;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+    
+    private void write(Runnable operation) {
+        try {
+            writer.execute(() -> {
+                try {
+                    operation.run();
+                } catch (RuntimeException e) {
+                    writeFailures.incrementAndGet();
+                    log.warn("Session registry write failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            writeFailures.incrementAndGet();
+        }
+    }
+    
+    private static class CachedOwner {
+        private final Member member;
+        private final long expiresAt;
+        
+        CachedOwner(Member member, long expiresAt) {
+            this.member = member;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.interview.app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.MurmurHash3;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the node a new interview session should run on, by consistent hashing.
+ *
+ * Each live node gets a number of points on a hash ring and a key (an interview id, or else the
+ * user id) goes to the first point at or after its own hash. When a node joins or leaves only
+ * the keys next to its points move, so a candidate keeps being sent to the node that pre-warmed
+ * their round. Clients ask for a placement before opening the WebSocket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionPlacement {
+    
+    private final SessionRegistry sessionRegistry;
+    
+    private volatile Ring ring = new Ring(Set.of(), 0);
+    private final AtomicLong rebuilds = new AtomicLong();
+    
+    @Value("${cluster.placement.virtual-nodes:128}")
+    private int virtualNodes;
+    
+    /**
+     * Node for a key, or null when no node is taking sessions
+     */
+    public SessionRegistry.Member place(String key) {
+        return ring.lookup(hash(key));
+    }
+    
+    public boolean isLocal(String key) {
+        return sessionRegistry.self().equals(place(key));
+    }
+    
+    /**
+     * Rebuild the ring when the set of live nodes has changed
+     */
+    @Scheduled(fixedDelayString = "${cluster.placement.refresh-interval-ms:5000}")
+    public void refresh() {
+        Set<SessionRegistry.Member> members = Set.copyOf(sessionRegistry.liveMembers());
+        if (!members.equals(ring.members)) {
+            ring = new Ring(members, virtualNodes);
+            rebuilds.incrementAndGet();
+            log.info("Placement ring rebuilt with {} nodes", members.size());
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Ring current = ring;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("nodes", current.members.size());
+        stats.put("virtualNodes", virtualNodes);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("share", current.share());
+        return stats;
+    }
+    
+    private static long hash(String value) {
+        return MurmurHash3.hash128x64(value.getBytes(StandardCharsets.UTF_8))[0];
+    }
+    
+    private static class Ring {
+        private final Set<SessionRegistry.Member> members;
+        private final TreeMap<Long, SessionRegistry.Member> points = new TreeMap<>();
+        
+        Ring(Set<SessionRegistry.Member> members, int virtualNodes) {
+            this.members = members;
+            for (SessionRegistry.Member member : members) {
+                for (int i = 0; i < virtualNodes; i++) {
+                    points.put(hash(member.getNodeId() + "#" + i), member);
+                }
+            }
+        }
+        
+        SessionRegistry.Member lookup(long hash) {
+            if (points.isEmpty()) {
+                return null;
+            }
+            Map.Entry<Long, SessionRegistry.Member> entry = points.ceilingEntry(hash);
+            return (entry != null ? entry : points.firstEntry()).getValue();
+        }
+        
+        /**
+         * Fraction of the hash space each node owns
+         */
+        Map<String, Double> share() {
+            Map<String, Double> share = new HashMap<>();
+            if (points.isEmpty()) {
+                return share;
+            }
+            if (points.size() == 1) {
+                share.put(points.firstEntry().getValue().getNodeId(), 1.0);
+                return share;
+            }
+            // Each point owns the arc from the previous point up to itself; the first one wraps around
+            long previous = points.lastKey();
+            for (Map.Entry<Long, SessionRegistry.Member> entry : points.entrySet()) {
+                long arc = entry.getKey() - previous;
+                share.merge(entry.getValue().getNodeId(), ((arc >>> 1) * 2.0 + (arc & 1)) / 0x1p64, Double::sum);
+                previous = entry.getKey();
+            }
+            return share;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.interview.app.service;
+
+import com.interview.app.websocket.GeminiConnectionPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ends interview sessions whose client has gone away.
+ *
+ * Sessions started over STOMP are tied to that STOMP session and end when it disconnects.
+ * Any session without inbound or outbound activity for the idle TTL is ended as well, which
+ * covers REST-only clients and disconnects that were never reported. Gemini connections held
+ * by no interview session at all (e.g. diagnostic test sessions) are closed once they have
+ * been seen orphaned on two consecutive scans.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionReaper {
+    
+    private static final long[] AGE_BUCKETS_MINUTES = {1, 5, 15, 30, 60};
+    
+    private final InterviewService interviewService;
+    private final GeminiConnectionPool connectionPool;
+    private final InterviewLaneDispatcher laneDispatcher;
+    private final AdmissionController admissionController;
+    
+    // STOMP session id -> interview sessions started on it
+    private final Map<String, Set<String>> clientSessions = new ConcurrentHashMap<>();
+    // STOMP session id -> disconnect time, for starts that complete after the disconnect
+    private final Map<String, Long> recentlyDisconnected = new ConcurrentHashMap<>();
+    private final Set<String> suspectedLeaks = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicLong endedOnDisconnect = new AtomicLong();
+    private final AtomicLong reapedIdle = new AtomicLong();
+    private final AtomicLong leakedConnections = new AtomicLong();
+    private final AtomicLongArray endedAgeHistogram = new AtomicLongArray(AGE_BUCKETS_MINUTES.length + 1);
+    
+    @Value("${interview.reaper.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${interview.reaper.idle-ttl-ms:300000}")
+    private long idleTtlMs;
+    
+    /**
+     * Tie an interview session to the STOMP session that started it
+     */
+    public void bindClientSession(String clientSessionId, String sessionId) {
+        if (clientSessionId == null) {
+            return;
+        }
+        clientSessions.computeIfAbsent(clientSessionId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        
+        // The client may have left while Gemini was still setting up
+        if (recentlyDisconnected.containsKey(clientSessionId)) {
+            Set<String> orphaned = clientSessions.remove(clientSessionId);
+            if (orphaned != null) {
+                orphaned.forEach(id -> end(id, endedOnDisconnect));
+            }
+        }
+    }
+    
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        String clientSessionId = event.getSessionId();
+        recentlyDisconnected.put(clientSessionId, System.currentTimeMillis());
+        // A start still in the waiting room must not hold up the queue or be given a slot later
+        admissionController.cancel(clientSessionId);
+        Set<String> sessionIds = clientSessions.remove(clientSessionId);
+        if (sessionIds == null || !enabled) {
+            return;
+        }
+        for (String sessionId : sessionIds) {
+            log.info("Client {} disconnected, ending interview session: {}", clientSessionId, sessionId);
+            end(sessionId, endedOnDisconnect);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${interview.reaper.scan-interval-ms:30000}")
+    public void reap() {
+        long now = System.currentTimeMillis();
+        recentlyDisconnected.values().removeIf(at -> now - at > idleTtlMs);
+        if (!enabled) {
+            return;
+        }
+        
+        Set<String> active = new HashSet<>();
+        for (InterviewService.SessionActivity activity : interviewService.getSessionActivity()) {
+            active.add(activity.getSessionId());
+            if (now - activity.getLastActivityAt() > idleTtlMs) {
+                log.warn("Interview session {} idle for {} ms, ending it", activity.getSessionId(),
+                    now - activity.getLastActivityAt());
+                end(activity.getSessionId(), reapedIdle);
+            }
+        }
+        
+        // A connection must be orphaned on two scans in a row, so one being checked out is left alone
+        Set<String> orphaned = new HashSet<>(connectionPool.getConnectedSessionIds());
+        orphaned.removeAll(active);
+        for (String sessionId : orphaned) {
+            if (suspectedLeaks.remove(sessionId)) {
+                if (!interviewService.isActive(sessionId)) {
+                    log.warn("Closing leaked Gemini connection of session: {}", sessionId);
+                    leakedConnections.incrementAndGet();
+                    connectionPool.closeConnectionAsync(sessionId);
+                }
+            } else {
+                suspectedLeaks.add(sessionId);
+            }
+        }
+        suspectedLeaks.retainAll(orphaned);
+    }
+    
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        long[] activeAges = new long[AGE_BUCKETS_MINUTES.length + 1];
+        long[] idleTimes = new long[AGE_BUCKETS_MINUTES.length + 1];
+        for (InterviewService.SessionActivity activity : interviewService.getSessionActivity()) {
+            activeAges[bucket(now - activity.getStartedAt())]++;
+            idleTimes[bucket(now - activity.getLastActivityAt())]++;
+        }
+        long[] endedAges = new long[endedAgeHistogram.length()];
+        for (int i = 0; i < endedAges.length; i++) {
+            endedAges[i] = endedAgeHistogram.get(i);
+        }
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("idleTtlMs", idleTtlMs);
+        stats.put("trackedClients", clientSessions.size());
+        stats.put("endedOnDisconnect", endedOnDisconnect.get());
+        stats.put("reapedIdle", reapedIdle.get());
+        stats.put("leakedConnectionsClosed", leakedConnections.get());
+        stats.put("suspectedLeaks", suspectedLeaks.size());
+        stats.put("activeSessionAge", histogram(activeAges));
+        stats.put("activeSessionIdle", histogram(idleTimes));
+        stats.put("reapedSessionAge", histogram(endedAges));
+        return stats;
+    }
+    
+    /**
+     * End a session off the caller's thread; closing the Gemini socket waits for its handshake
+     */
+    private void end(String sessionId, AtomicLong counter) {
+        InterviewService.SessionActivity activity = interviewService.getSessionActivity(sessionId);
+        if (activity == null) {
+            return;
+        }
+        counter.incrementAndGet();
+        endedAgeHistogram.incrementAndGet(bucket(System.currentTimeMillis() - activity.getStartedAt()));
+        // After the session's queued messages, closing the socket without waiting for Gemini
+        if (!laneDispatcher.dispatch(sessionId, () -> interviewService.endInterview(sessionId, false))) {
+            interviewService.endInterview(sessionId, false);
+        }
+    }
+    
+    private static int bucket(long millis) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        for (int i = 0; i < AGE_BUCKETS_MINUTES.length; i++) {
+            if (minutes < AGE_BUCKETS_MINUTES[i]) {
+                return i;
+            }
+        }
+        return AGE_BUCKETS_MINUTES.length;
+    }
+    
+    private static Map<String, Long> histogram(long[] counts) {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        long lower = 0;
+        for (int i = 0; i < AGE_BUCKETS_MINUTES.length; i++) {
+            histogram.put(lower + "-" + AGE_BUCKETS_MINUTES[i] + "m", counts[i]);
+            lower = AGE_BUCKETS_MINUTES[i];
+        }
+        histogram.put(lower + "m+", counts[AGE_BUCKETS_MINUTES.length]);
+        return histogram;
+    }
+}
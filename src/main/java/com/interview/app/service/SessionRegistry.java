@@ -0,0 +1,47 @@
+package com.interview.app.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which cluster node owns each interview session, and which nodes are up.
+ *
+ * A session lives on the node that started it, since its Gemini connection and media pipeline
+ * are local to that node. Another node that receives traffic for the session looks the owner up
+ * here and forwards it. {@link LocalSessionRegistry} serves a single node;
+ * {@link MongoSessionRegistry} shares ownership and node heartbeats across a cluster.
+ */
+public interface SessionRegistry {
+    
+    /**
+     * This node
+     */
+    Member self();
+    
+    void register(String sessionId, String userId);
+    
+    void unregister(String sessionId);
+    
+    /**
+     * Node owning the session, or null when the session is unknown or its node is gone
+     */
+    Member ownerOf(String sessionId);
+    
+    /**
+     * Nodes taking new sessions, for placement
+     */
+    List<Member> liveMembers();
+    
+    /**
+     * Stop taking new sessions; sessions already owned here are still looked up here
+     */
+    void leave();
+    
+    Map<String, Object> getStats();
+    
+    @lombok.Value
+    class Member {
+        String nodeId;
+        String url;
+    }
+}
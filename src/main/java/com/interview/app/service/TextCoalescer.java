@@ -0,0 +1,101 @@
+package com.interview.app.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-session buffer that turns Gemini's small text parts into fewer, larger client messages.
+ *
+ * Buffered text is released at a sentence boundary, once it reaches the size threshold, when
+ * the caller's flush timer fires, or when the turn ends. The whole turn is accumulated
+ * alongside, so the finished turn text is available without re-assembling messages.
+ */
+public class TextCoalescer {
+    
+    private final int maxChars;
+    private final boolean flushOnPunctuation;
+    
+    private final StringBuilder buffer = new StringBuilder();
+    private final StringBuilder turn = new StringBuilder();
+    
+    private long partsIn;
+    private long messagesOut;
+    
+    public TextCoalescer(int maxChars, boolean flushOnPunctuation) {
+        this.maxChars = maxChars;
+        this.flushOnPunctuation = flushOnPunctuation;
+    }
+    
+    /**
+     * Buffer one text part. Returns the text to send now, or null if it should stay buffered.
+     */
+    public synchronized String append(String text) {
+        partsIn++;
+        buffer.append(text);
+        turn.append(text);
+        
+        if (buffer.length() >= maxChars) {
+            return drain(buffer.length());
+        }
+        if (flushOnPunctuation) {
+            int boundary = lastSentenceBoundary(text);
+            if (boundary >= 0) {
+                return drain(buffer.length() - text.length() + boundary + 1);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * True if text is waiting for a flush; the caller arms its timer when this flips to true
+     */
+    public synchronized boolean hasBuffered() {
+        return buffer.length() > 0;
+    }
+    
+    /**
+     * Release everything buffered, or null if nothing is
+     */
+    public synchronized String flush() {
+        return buffer.length() > 0 ? drain(buffer.length()) : null;
+    }
+    
+    /**
+     * End the turn: returns the full turn text (null if the turn had none) and starts a new one.
+     * Buffered text must be flushed first.
+     */
+    public synchronized String completeTurn() {
+        String text = turn.length() > 0 ? turn.toString() : null;
+        turn.setLength(0);
+        return text;
+    }
+    
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("partsIn", partsIn);
+        stats.put("messagesOut", messagesOut);
+        stats.put("partsPerMessage", messagesOut > 0 ? (double) partsIn / messagesOut : 0.0);
+        stats.put("bufferedChars", buffer.length());
+        return stats;
+    }
+    
+    private String drain(int length) {
+        String text = buffer.substring(0, length);
+        buffer.delete(0, length);
+        messagesOut++;
+        return text;
+    }
+    
+    /**
+     * Index just before which a sentence ends in {@code text}, or -1
+     */
+    private static int lastSentenceBoundary(String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == '.' || c == '!' || c == '?' || c == '\n' || c == '。') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -4,21 +4,58 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PreDestroy;
-import javax.net.ssl.SSLContext;
 import java.net.URI;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class GeminiConnectionPool {
     
+    private static final String WARM_SESSION_PREFIX = "warm-";
+    
     private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService geminiOutboundExecutor;
+    private final GeminiTransportFactory transportFactory;
+    private final GeminiReconnectSupervisor reconnectSupervisor;
+    private final GeminiSetupTemplates setupTemplates;
     private final Map<String, GeminiWebSocketClient> connections = new ConcurrentHashMap<>();
+    private final Map<String, GeminiOutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    private final Deque<GeminiWebSocketClient> idleConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger warmingConnections = new AtomicInteger();
+    private final Map<String, WarmSession> warmSessions = new ConcurrentHashMap<>();
+    // Set once a drain or shutdown closes the pool; nothing is opened or pooled after that
+    private volatile boolean closed;
+    
+    private final AtomicLong checkoutHits = new AtomicLong();
+    private final AtomicLong checkoutMisses = new AtomicLong();
+    private final AtomicLong checkoutNanosTotal = new AtomicLong();
+    private final AtomicLong checkoutNanosMax = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong warmSessionsStarted = new AtomicLong();
+    private final AtomicLong warmSessionsClaimed = new AtomicLong();
+    private final AtomicLong warmSessionsDiscarded = new AtomicLong();
+    // Realtime input held for replay by all connections, see GeminiReplayBuffer
+    private final AtomicLong replayBytes = new AtomicLong();
     
     @Value("${gemini.api.websocket-url}")
     private String geminiWebSocketUrl;
@@ -26,27 +63,199 @@ public class GeminiConnectionPool {
     @Value("${gemini.api.key}")
     private String geminiApiKey;
     
-    @Value("${interview.config.default-voice}")
-    private String defaultVoice;
+    @Value("${gemini.outbound.backpressure-retry-ms:20}")
+    private long backpressureRetryMs;
+    
+    @Value("${gemini.outbound.audio-max-depth:250}")
+    private int audioMaxDepth;
+    
+    @Value("${gemini.reconnect.session-resumption:false}")
+    private boolean sessionResumptionEnabled;
+    
+    @Value("${gemini.reconnect.replay-window-ms:5000}")
+    private long replayWindowMs;
+    
+    @Value("${gemini.reconnect.replay-max-bytes:262144}")
+    private long replayMaxBytes;
+    
+    @Value("${gemini.reconnect.replay-max-total-bytes:67108864}")
+    private long replayMaxTotalBytes;
+    
+    @Value("${gemini.reconnect.replay-max-text-turns:20}")
+    private int replayMaxTextTurns;
+    
+    @Value("${gemini.pool.min-idle:2}")
+    private int minIdle;
     
-    @Value("${interview.config.system-instruction}")
-    private String systemInstruction;
+    @Value("${gemini.pool.max-idle:8}")
+    private int maxIdle;
+    
+    @Value("${gemini.pool.validation-timeout-ms:30000}")
+    private long validationTimeoutMs;
+    
+    @Value("${gemini.pool.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
     
     /**
-     * Get or create a dedicated Gemini WebSocket connection for a session
+     * Get the Gemini WebSocket connection bound to a session, checking one out of the pool
+     * on first use
      */
     public GeminiWebSocketClient getConnection(String sessionId) {
-        return connections.computeIfAbsent(sessionId, this::createConnection);
+        return connections.computeIfAbsent(sessionId, this::checkoutConnection);
+    }
+    
+    /**
+     * The connection already bound to a session, or null. Never checks one out, so a message
+     * arriving after its session ended cannot open a socket
+     */
+    public GeminiWebSocketClient findConnection(String sessionId) {
+        return connections.get(sessionId);
+    }
+    
+    /**
+     * Open a connection and send the setup for a scheduled interview round before anyone asks
+     * for it, parking the session under the round's interview id. Returns the setup future, or
+     * null when the round already has a warm session. onRemoved runs once when the session leaves
+     * the pool, whether claimed, discarded or lost; it does not run when null is returned.
+     */
+    public CompletableFuture<Void> prewarmSession(String interviewId, GeminiSetupTemplates.Template template,
+                                                  Runnable onRemoved) {
+        if (closed || warmSessions.containsKey(interviewId)) {
+            return null;
+        }
+        GeminiWebSocketClient client = pollValidIdle();
+        if (client == null) {
+            client = createConnection();
+        }
+        WarmSession warm = new WarmSession(client, onRemoved);
+        if (warmSessions.putIfAbsent(interviewId, warm) != null) {
+            client.close();
+            return null;
+        }
+        warmSessionsStarted.incrementAndGet();
+        
+        CompletableFuture<Void> setup = client.setupSession(WARM_SESSION_PREFIX + interviewId, template,
+            new GeminiWebSocketClient.SessionHandler() {
+                @Override
+                public void onSetupComplete() {
+                    log.info("Warm Gemini session ready for interview: {}", interviewId);
+                }
+                
+                @Override
+                public void onAudioData(String mimeType, String base64Data) {
+                }
+                
+                @Override
+                public void onTextResponse(String text) {
+                }
+                
+                @Override
+                public void onTurnComplete() {
+                }
+                
+                @Override
+                public void onInterrupted() {
+                }
+                
+                @Override
+                public void onDisconnect() {
+                    // Lost while parked, the candidate falls back to a regular start
+                    if (warmSessions.remove(interviewId, warm)) {
+                        warmSessionsDiscarded.incrementAndGet();
+                        warm.removed();
+                    }
+                }
+            });
+        replenish();
+        return setup;
+    }
+    
+    /**
+     * Bind the warm session of an interview round to a newly started interview session.
+     * Returns null when there is no usable warm session for the round.
+     */
+    public GeminiWebSocketClient claimWarmSession(String interviewId, String sessionId) {
+        WarmSession warm = warmSessions.remove(interviewId);
+        if (warm == null) {
+            return null;
+        }
+        warm.removed();
+        GeminiWebSocketClient client = warm.client;
+        if (!client.isOpen()) {
+            warmSessionsDiscarded.incrementAndGet();
+            client.release();
+            client.close();
+            return null;
+        }
+        warmSessionsClaimed.incrementAndGet();
+        connections.put(sessionId, client);
+        log.info("Claimed warm Gemini session of interview {} for session: {}", interviewId, sessionId);
+        return client;
+    }
+    
+    /**
+     * Close the warm session of an interview round if it is still parked
+     */
+    public boolean discardWarmSession(String interviewId) {
+        WarmSession warm = warmSessions.remove(interviewId);
+        if (warm == null) {
+            return false;
+        }
+        warmSessionsDiscarded.incrementAndGet();
+        log.info("Discarding unused warm Gemini session of interview: {}", interviewId);
+        warm.removed();
+        warm.client.release();
+        warm.client.close();
+        return true;
+    }
+    
+    public boolean hasWarmSession(String interviewId) {
+        return warmSessions.containsKey(interviewId);
+    }
+    
+    public int getWarmSessionCount() {
+        return warmSessions.size();
+    }
+    
+    /**
+     * Identifies the API key this pool's connections use, for per-key budgets, without
+     * exposing the key
+     */
+    public String getApiKeyId() {
+        String key = geminiApiKey != null ? geminiApiKey : "";
+        return key.length() > 4 ? "..." + key.substring(key.length() - 4) : "default";
+    }
+    
+    /**
+     * The outbound queue that serializes realtime input for a session, created on first use.
+     * Null when the session holds no connection
+     */
+    public GeminiOutboundQueue findOutboundQueue(String sessionId) {
+        return outboundQueues.computeIfAbsent(sessionId, id -> {
+            GeminiWebSocketClient client = connections.get(id);
+            return client == null ? null
+                : new GeminiOutboundQueue(id, client, geminiOutboundExecutor, backpressureRetryMs, audioMaxDepth);
+        });
+    }
+    
+    /**
+     * Per-lane queue depth and drop counts for every session
+     */
+    public Map<String, Map<String, Object>> getOutboundStats() {
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        outboundQueues.forEach((sessionId, queue) -> stats.put(sessionId, queue.getStats()));
+        return stats;
     }
     
     /**
      * Remove and close connection for a session
      */
     public void removeConnection(String sessionId) {
-        GeminiWebSocketClient client = connections.remove(sessionId);
+        GeminiWebSocketClient client = detachConnection(sessionId);
         if (client != null) {
             try {
                 log.info("Closing Gemini connection for session: {}", sessionId);
+                client.release();
                 client.closeBlocking();
             } catch (InterruptedException e) {
                 log.error("Error closing connection for session: {}", sessionId, e);
@@ -55,6 +264,25 @@ public class GeminiConnectionPool {
         }
     }
     
+    /**
+     * Remove connection for a session and start closing it without waiting for the close handshake
+     */
+    public void closeConnectionAsync(String sessionId) {
+        GeminiWebSocketClient client = detachConnection(sessionId);
+        if (client != null) {
+            log.info("Closing Gemini connection asynchronously for session: {}", sessionId);
+            client.release();
+            client.close();
+        }
+    }
+    
+    /**
+     * Sessions currently holding a connection
+     */
+    public Set<String> getConnectedSessionIds() {
+        return Set.copyOf(connections.keySet());
+    }
+    
     /**
      * Get count of active connections
      */
@@ -62,6 +290,57 @@ public class GeminiConnectionPool {
         return connections.size();
     }
     
+    /**
+     * Idle pool size, checkout hit/miss counts and checkout latency
+     */
+    public Map<String, Object> getPoolStats() {
+        long hits = checkoutHits.get();
+        long misses = checkoutMisses.get();
+        long checkouts = hits + misses;
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("idleConnections", idleConnections.size());
+        stats.put("warmingConnections", warmingConnections.get());
+        stats.put("minIdle", minIdle);
+        stats.put("maxIdle", maxIdle);
+        stats.put("checkoutHits", hits);
+        stats.put("checkoutMisses", misses);
+        stats.put("hitRatio", checkouts > 0 ? (double) hits / checkouts : 0.0);
+        stats.put("avgCheckoutMicros", checkouts > 0 ? checkoutNanosTotal.get() / checkouts / 1000 : 0);
+        stats.put("maxCheckoutMicros", checkoutNanosMax.get() / 1000);
+        stats.put("idleEvictions", idleEvictions.get());
+        stats.put("warmSessions", warmSessions.size());
+        stats.put("warmSessionsStarted", warmSessionsStarted.get());
+        stats.put("warmSessionsClaimed", warmSessionsClaimed.get());
+        stats.put("warmSessionsDiscarded", warmSessionsDiscarded.get());
+        stats.put("replayBufferedBytes", replayBytes.get());
+        return stats;
+    }
+    
+    /**
+     * Evict dead idle sockets, ping the remaining ones and top the pool back up to min-idle
+     */
+    @Scheduled(fixedDelayString = "${gemini.pool.maintenance-interval-ms:5000}")
+    public void maintainIdleConnections() {
+        if (closed) {
+            return;
+        }
+        int size = idleConnections.size();
+        for (int i = 0; i < size; i++) {
+            GeminiWebSocketClient client = idleConnections.pollFirst();
+            if (client == null) {
+                break;
+            }
+            if (isValid(client) && idleConnections.size() < maxIdle) {
+                client.sendPing();
+                idleConnections.offerLast(client);
+            } else {
+                evict(client);
+            }
+        }
+        replenish();
+    }
+    
     /**
      * Check if session has an active connection
      */
@@ -75,57 +354,199 @@ public class GeminiConnectionPool {
      */
     @PreDestroy
     public void closeAllConnections() {
+        closeAllConnections(shutdownTimeoutMs);
+    }
+    
+    /**
+     * Close every connection at once and wait for the close handshakes until the timeout.
+     * Returns how many connections were still open when it ran out; those go down with the
+     * process. The pool stays closed: idle connections are no longer replenished and warm-ups
+     * that finish afterwards are closed rather than pooled.
+     */
+    public int closeAllConnections(long timeoutMs) {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
         log.info("Closing all Gemini connections. Count: {}", connections.size());
+        outboundQueues.values().forEach(GeminiOutboundQueue::close);
+        outboundQueues.clear();
+        GeminiWebSocketClient idle;
+        while ((idle = idleConnections.pollFirst()) != null) {
+            idle.close();
+        }
+        warmSessions.values().forEach(warm -> {
+            warm.removed();
+            warm.client.release();
+            warm.client.close();
+        });
+        warmSessions.clear();
+        
+        // closeBlocking has no timeout of its own, so each close gets a thread and only the waiting is bounded
+        ExecutorService closer = Executors.newVirtualThreadPerTaskExecutor();
+        Map<String, Future<?>> closing = new HashMap<>();
         connections.forEach((sessionId, client) -> {
-            try {
+            client.release();
+            closing.put(sessionId, closer.submit(() -> {
                 client.closeBlocking();
+                return null;
+            }));
+        });
+        connections.clear();
+        closer.shutdown();
+        
+        int abandoned = 0;
+        for (Map.Entry<String, Future<?>> entry : closing.entrySet()) {
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                abandoned++;
+            } catch (ExecutionException e) {
+                log.error("Error closing connection for session: {}", entry.getKey(), e.getCause());
             } catch (InterruptedException e) {
-                log.error("Error closing connection for session: {}", sessionId, e);
                 Thread.currentThread().interrupt();
+                abandoned = (int) closing.values().stream().filter(future -> !future.isDone()).count();
+                break;
             }
-        });
-        connections.clear();
+        }
+        if (abandoned > 0) {
+            log.warn("{} of {} Gemini connections did not close within {} ms", abandoned, closing.size(), timeoutMs);
+            closer.shutdownNow();
+        }
+        return abandoned;
+    }
+    
+    private GeminiWebSocketClient detachConnection(String sessionId) {
+        // Connection first, so findOutboundQueue cannot build a new queue once the old one is gone
+        GeminiWebSocketClient client = connections.remove(sessionId);
+        GeminiOutboundQueue queue = outboundQueues.remove(sessionId);
+        if (queue != null) {
+            queue.close();
+        }
+        return client;
+    }
+    
+    private GeminiWebSocketClient checkoutConnection(String sessionId) {
+        if (closed) {
+            throw new IllegalStateException("Gemini connection pool is closed");
+        }
+        long start = System.nanoTime();
+        
+        GeminiWebSocketClient client = pollValidIdle();
+        if (client != null) {
+            checkoutHits.incrementAndGet();
+            log.info("Checked out warm Gemini connection for session: {}", sessionId);
+        } else {
+            checkoutMisses.incrementAndGet();
+            client = createConnection();
+            log.info("No warm Gemini connection available, created one for session: {}", sessionId);
+        }
+        client.bindSession(sessionId);
+        
+        long elapsed = System.nanoTime() - start;
+        checkoutNanosTotal.addAndGet(elapsed);
+        checkoutNanosMax.accumulateAndGet(elapsed, Math::max);
+        
+        replenish();
+        return client;
     }
     
-    private GeminiWebSocketClient createConnection(String sessionId) {
+    private GeminiWebSocketClient pollValidIdle() {
+        GeminiWebSocketClient client;
+        while ((client = idleConnections.pollFirst()) != null) {
+            if (isValid(client)) {
+                return client;
+            }
+            evict(client);
+        }
+        return null;
+    }
+    
+    private boolean isValid(GeminiWebSocketClient client) {
+        return client.isOpen() && System.currentTimeMillis() - client.getLastPongAt() < validationTimeoutMs;
+    }
+    
+    private void evict(GeminiWebSocketClient client) {
+        idleEvictions.incrementAndGet();
+        client.close();
+    }
+    
+    /**
+     * Open connections in the background until idle plus in-flight connections reach min-idle
+     */
+    private void replenish() {
+        while (!closed && idleConnections.size() + warmingConnections.get() < minIdle) {
+            warmingConnections.incrementAndGet();
+            GeminiWebSocketClient client;
+            try {
+                client = createConnection();
+            } catch (RuntimeException e) {
+                warmingConnections.decrementAndGet();
+                return;
+            }
+            client.connectAsync().whenComplete((ignored, error) -> {
+                warmingConnections.decrementAndGet();
+                if (error != null) {
+                    log.warn("Failed to warm Gemini connection: {}", error.getMessage());
+                } else if (!closed && idleConnections.size() < maxIdle) {
+                    idleConnections.offerLast(client);
+                    // Lost a race with closeAllConnections, which has already emptied the pool
+                    if (closed && idleConnections.remove(client)) {
+                        client.close();
+                        return;
+                    }
+                    log.debug("Warm Gemini connection added to pool. Idle: {}", idleConnections.size());
+                } else {
+                    client.close();
+                }
+            });
+        }
+    }
+    
+    private GeminiWebSocketClient createConnection() {
         try {
             String urlWithKey = geminiWebSocketUrl + "?key=" + geminiApiKey;
-            log.info("Creating dedicated Gemini connection for session: {}", sessionId);
+            log.info("Creating Gemini connection over {} transport", transportFactory.getTransportType());
             
             URI serverUri = new URI(urlWithKey);
             
             GeminiWebSocketClient client = new GeminiWebSocketClient(
                 serverUri, 
+                transportFactory,
                 objectMapper, 
-                sessionId,  // Pass session ID to client
-                defaultVoice,
-                systemInstruction
+                setupTemplates
             );
             
-            // Configure SSL to trust all certificates
-            try {
-                javax.net.ssl.TrustManager[] trustAllCerts = new javax.net.ssl.TrustManager[] {
-                    new javax.net.ssl.X509TrustManager() {
-                        public java.security.cert.X509Certificate[] getAcceptedIssuers() { return null; }
-                        public void checkClientTrusted(java.security.cert.X509Certificate[] certs, String authType) { }
-                        public void checkServerTrusted(java.security.cert.X509Certificate[] certs, String authType) { }
-                    }
-                };
-                
-                SSLContext sslContext = SSLContext.getInstance("TLS");
-                sslContext.init(null, trustAllCerts, new java.security.SecureRandom());
-                client.setSocketFactory(sslContext.getSocketFactory());
-                log.debug("SSL context configured for session: {}", sessionId);
-            } catch (Exception e) {
-                log.error("Failed to configure SSL context for session: {}", sessionId, e);
-            }
+            client.configureRecovery(
+                reconnectSupervisor,
+                new GeminiReplayBuffer(replayWindowMs, replayMaxBytes, replayMaxTextTurns, replayBytes, replayMaxTotalBytes),
+                sessionResumptionEnabled
+            );
             
-            log.info("Created dedicated Gemini connection for session: {}", sessionId);
             return client;
             
         } catch (Exception e) {
-            log.error("Failed to create Gemini connection for session: {}", sessionId, e);
+            log.error("Failed to create Gemini connection", e);
             throw new RuntimeException("Failed to create Gemini connection", e);
         }
     }
+    
+    /**
+     * A parked session and what to run once it leaves the pool
+     */
+    private static class WarmSession {
+        private final GeminiWebSocketClient client;
+        private final Runnable onRemoved;
+        
+        WarmSession(GeminiWebSocketClient client, Runnable onRemoved) {
+            this.client = client;
+            this.onRemoved = onRemoved;
+        }
+        
+        void removed() {
+            try {
+                onRemoved.run();
+            } catch (RuntimeException e) {
+                log.warn("Warm session removal hook failed: {}", e.getMessage());
+            }
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package com.interview.app.websocket;
+
+import com.interview.app.dto.MediaChunk;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-session outbound scheduler for realtime input sent to Gemini.
+ *
+ * Audio is kept in an ordered lane of bounded depth; when Gemini falls that far behind, the
+ * oldest audio is dropped, as it is no longer live by the time it could be sent. Video and
+ * screen frames share a single-slot lane where the newest frame replaces any frame still
+ * waiting, and they are only written once the socket has flushed its previous writes.
+ */
+@Slf4j
+public class GeminiOutboundQueue {
+
+    private final String sessionId;
+    private final GeminiWebSocketClient client;
+    private final ScheduledExecutorService executor;
+    private final long backpressureRetryMs;
+    private final int maxAudioDepth;
+
+    private final Queue<List<MediaChunk>> audioLane = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<List<MediaChunk>> videoLane = new AtomicReference<>();
+    private final AtomicInteger audioDepth = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final AtomicLong audioSent = new AtomicLong();
+    private final AtomicLong audioDropped = new AtomicLong();
+    private final AtomicLong videoSent = new AtomicLong();
+    private final AtomicLong videoDropped = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong sendNanosTotal = new AtomicLong();
+    private final AtomicLong sendCount = new AtomicLong();
+    private volatile long recentSendNanos;
+
+    private volatile boolean closed = false;
+
+    public GeminiOutboundQueue(String sessionId, GeminiWebSocketClient client,
+                               ScheduledExecutorService executor, long backpressureRetryMs, int maxAudioDepth) {
+        this.sessionId = sessionId;
+        this.client = client;
+        this.executor = executor;
+        this.backpressureRetryMs = backpressureRetryMs;
+        this.maxAudioDepth = maxAudioDepth;
+    }
+
+    /**
+     * Queue chunks on the lane matching their mime type
+     */
+    public void enqueue(List<MediaChunk> mediaChunks) {
+        if (isVideo(mediaChunks)) {
+            enqueueVideo(mediaChunks);
+        } else {
+            enqueueAudio(mediaChunks);
+        }
+    }
+
+    /**
+     * Queue chunks on the ordered lane (audio, mixed input)
+     */
+    public void enqueueAudio(List<MediaChunk> mediaChunks) {
+        if (closed) {
+            return;
+        }
+        audioLane.offer(mediaChunks);
+        if (audioDepth.incrementAndGet() > maxAudioDepth && audioLane.poll() != null) {
+            audioDepth.decrementAndGet();
+            if (audioDropped.incrementAndGet() % 100 == 1) {
+                log.warn("Audio lane full for session: {}, dropped {} batches so far", sessionId, audioDropped.get());
+            }
+        }
+        scheduleDrain(0);
+    }
+
+    /**
+     * Queue a frame on the latest-wins lane (video, screen share)
+     */
+    public void enqueueVideo(List<MediaChunk> mediaChunks) {
+        if (closed) {
+            return;
+        }
+        List<MediaChunk> replaced = videoLane.getAndSet(mediaChunks);
+        if (replaced != null) {
+            videoDropped.incrementAndGet();
+            log.debug("Replaced queued video frame for session: {}", sessionId);
+        }
+        scheduleDrain(0);
+    }
+
+    /**
+     * Bytes queued on the Gemini socket that have not been flushed yet
+     */
+    public long getBufferedBytes() {
+        return client.getBufferedBytes();
+    }
+
+    /**
+     * Smoothed time spent handing one batch of realtime input to the socket
+     */
+    public long getRecentSendMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(recentSendNanos);
+    }
+
+    public void close() {
+        closed = true;
+        audioLane.clear();
+        audioDepth.set(0);
+        videoLane.set(null);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("audioQueueDepth", audioDepth.get());
+        stats.put("videoQueueDepth", videoLane.get() != null ? 1 : 0);
+        stats.put("audioSent", audioSent.get());
+        stats.put("audioDropped", audioDropped.get());
+        stats.put("videoSent", videoSent.get());
+        stats.put("videoDropped", videoDropped.get());
+        stats.put("backpressureWaits", backpressureWaits.get());
+        long sends = sendCount.get();
+        stats.put("avgSendMicros", sends > 0 ? TimeUnit.NANOSECONDS.toMicros(sendNanosTotal.get() / sends) : 0);
+        stats.put("recentSendMicros", getRecentSendMicros());
+        stats.put("bufferedBytes", getBufferedBytes());
+        return stats;
+    }
+
+    private void scheduleDrain(long delayMs) {
+        if (closed || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            log.warn("Outbound executor rejected drain for session: {}", sessionId);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                List<MediaChunk> audio = audioLane.poll();
+                if (audio != null) {
+                    audioDepth.decrementAndGet();
+                    timedSend(audio);
+                    audioSent.incrementAndGet();
+                    continue;
+                }
+
+                if (videoLane.get() == null) {
+                    break;
+                }
+
+                // Keep the newest frame parked until the socket has flushed earlier writes
+                if (client.hasBufferedData()) {
+                    backpressureWaits.incrementAndGet();
+                    draining.set(false);
+                    scheduleDrain(backpressureRetryMs);
+                    return;
+                }
+
+                List<MediaChunk> video = videoLane.getAndSet(null);
+                if (video != null) {
+                    timedSend(video);
+                    videoSent.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error draining outbound queue for session: {}", sessionId, e);
+        }
+
+        draining.set(false);
+        // Pick up anything enqueued after the loop observed empty lanes
+        if (!closed && (!audioLane.isEmpty() || videoLane.get() != null)) {
+            scheduleDrain(0);
+        }
+    }
+
+    private void timedSend(List<MediaChunk> mediaChunks) {
+        long start = System.nanoTime();
+        client.sendRealtimeInput(sessionId, mediaChunks);
+        long elapsed = System.nanoTime() - start;
+        sendNanosTotal.addAndGet(elapsed);
+        sendCount.incrementAndGet();
+        // Only the drain task writes this, so a plain read-modify-write is safe
+        recentSendNanos = recentSendNanos == 0 ? elapsed : (recentSendNanos * 7 + elapsed) / 8;
+    }
+
+    private static boolean isVideo(List<MediaChunk> mediaChunks) {
+        if (mediaChunks.isEmpty()) {
+            return false;
+        }
+        for (MediaChunk chunk : mediaChunks) {
+            String mimeType = chunk.getMimeType();
+            if (mimeType == null || !(mimeType.startsWith("image/") || mimeType.startsWith("video/"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.interview.app.websocket;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconnects Gemini sockets that drop mid-interview.
+ *
+ * Attempts use exponential backoff with jitter. A node-wide circuit breaker stops all
+ * reconnects for a cool-down period once too many attempts fail within a window, so a
+ * Gemini outage does not turn into a reconnect storm.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GeminiReconnectSupervisor implements GeminiWebSocketClient.ConnectionListener {
+    
+    private final ScheduledExecutorService geminiOutboundExecutor;
+    
+    private final AtomicLong reconnectAttempts = new AtomicLong();
+    private final AtomicLong reconnectSuccesses = new AtomicLong();
+    private final AtomicLong reconnectsAbandoned = new AtomicLong();
+    private final AtomicLong recoveryMillisTotal = new AtomicLong();
+    private final AtomicLong recoveryMillisMax = new AtomicLong();
+    private final AtomicLong circuitOpenCount = new AtomicLong();
+    
+    // Circuit breaker state, guarded by this
+    private long failureWindowStart = 0;
+    private int failuresInWindow = 0;
+    private long circuitOpenUntil = 0;
+    
+    @Value("${gemini.reconnect.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${gemini.reconnect.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+    
+    @Value("${gemini.reconnect.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+    
+    @Value("${gemini.reconnect.circuit.failure-threshold:20}")
+    private int failureThreshold;
+    
+    @Value("${gemini.reconnect.circuit.window-ms:30000}")
+    private long failureWindowMs;
+    
+    @Value("${gemini.reconnect.circuit.open-ms:60000}")
+    private long circuitOpenMs;
+    
+    @Override
+    public void onConnectionLost(GeminiWebSocketClient client, int attempt) {
+        recordFailure();
+        
+        if (attempt > maxAttempts || isCircuitOpen()) {
+            log.warn("Giving up reconnect for session: {} after {} attempts (circuit open: {})",
+                     client.getSessionId(), attempt - 1, isCircuitOpen());
+            reconnectsAbandoned.incrementAndGet();
+            client.abandonRecovery();
+            return;
+        }
+        
+        long delay = backoffDelay(attempt);
+        log.info("Scheduling reconnect {} for session: {} in {} ms", attempt, client.getSessionId(), delay);
+        try {
+            // Only the timer runs on the shared executor; transports open the new socket without blocking it
+            geminiOutboundExecutor.schedule(() -> attemptReconnect(client, attempt), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            client.abandonRecovery();
+        }
+    }
+    
+    @Override
+    public void onRecovered(GeminiWebSocketClient client, long downtimeMillis) {
+        reconnectSuccesses.incrementAndGet();
+        recoveryMillisTotal.addAndGet(downtimeMillis);
+        recoveryMillisMax.accumulateAndGet(downtimeMillis, Math::max);
+        log.info("Recovered Gemini session: {} after {} ms", client.getSessionId(), downtimeMillis);
+    }
+    
+    public Map<String, Object> getStats() {
+        long successes = reconnectSuccesses.get();
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("reconnectAttempts", reconnectAttempts.get());
+        stats.put("reconnectSuccesses", successes);
+        stats.put("reconnectsAbandoned", reconnectsAbandoned.get());
+        stats.put("avgRecoveryMillis", successes > 0 ? recoveryMillisTotal.get() / successes : 0);
+        stats.put("maxRecoveryMillis", recoveryMillisMax.get());
+        stats.put("circuitOpen", isCircuitOpen());
+        stats.put("circuitOpenCount", circuitOpenCount.get());
+        return stats;
+    }
+    
+    private void attemptReconnect(GeminiWebSocketClient client, int attempt) {
+        if (client.isReleased()) {
+            return;
+        }
+        if (isCircuitOpen()) {
+            reconnectsAbandoned.incrementAndGet();
+            client.abandonRecovery();
+            return;
+        }
+        reconnectAttempts.incrementAndGet();
+        client.resume(attempt);
+    }
+    
+    private long backoffDelay(int attempt) {
+        long exponential = initialBackoffMs << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, maxBackoffMs);
+        // Full jitter over the upper half keeps retries from synchronizing
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+    
+    private synchronized void recordFailure() {
+        long now = System.currentTimeMillis();
+        if (now - failureWindowStart > failureWindowMs) {
+            failureWindowStart = now;
+            failuresInWindow = 0;
+        }
+        failuresInWindow++;
+        if (failuresInWindow >= failureThreshold && now >= circuitOpenUntil) {
+            circuitOpenUntil = now + circuitOpenMs;
+            circuitOpenCount.incrementAndGet();
+            log.error("Gemini reconnect circuit opened for {} ms after {} failures", circuitOpenMs, failuresInWindow);
+        }
+    }
+    
+    private synchronized boolean isCircuitOpen() {
+        return System.currentTimeMillis() < circuitOpenUntil;
+    }
+}
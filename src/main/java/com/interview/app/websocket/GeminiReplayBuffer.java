@@ -0,0 +1,99 @@
+package com.interview.app.websocket;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded history of what a session sent to Gemini, replayed after a reconnect.
+ *
+ * Realtime input is kept for a sliding time window and capped by size, both per session and
+ * across all sessions of the pool; a session over the shared cap gives up its own oldest input.
+ * Text turns are capped by count.
+ */
+public class GeminiReplayBuffer {
+
+    private final long windowMs;
+    private final long maxBytes;
+    private final int maxTextTurns;
+    private final AtomicLong sharedBytes;
+    private final long maxSharedBytes;
+
+    private final Deque<Entry> realtimeInputs = new ArrayDeque<>();
+    private final Deque<String> textTurns = new ArrayDeque<>();
+    private long bufferedBytes = 0;
+
+    public GeminiReplayBuffer(long windowMs, long maxBytes, int maxTextTurns, AtomicLong sharedBytes,
+                              long maxSharedBytes) {
+        this.windowMs = windowMs;
+        this.maxBytes = maxBytes;
+        this.maxTextTurns = maxTextTurns;
+        this.sharedBytes = sharedBytes;
+        this.maxSharedBytes = maxSharedBytes;
+    }
+
+    public synchronized void recordRealtimeInput(String json) {
+        long now = System.currentTimeMillis();
+        realtimeInputs.addLast(new Entry(now, json));
+        bufferedBytes += json.length();
+        sharedBytes.addAndGet(json.length());
+        trim(now);
+    }
+
+    public synchronized void recordTextTurn(String text) {
+        textTurns.addLast(text);
+        while (textTurns.size() > maxTextTurns) {
+            textTurns.pollFirst();
+        }
+    }
+
+    /**
+     * Serialized realtime input messages recorded at or after the given time, oldest first
+     */
+    public synchronized List<String> realtimeInputSince(long timestamp) {
+        trim(System.currentTimeMillis());
+        List<String> result = new ArrayList<>();
+        for (Entry entry : realtimeInputs) {
+            if (entry.timestamp >= timestamp) {
+                result.add(entry.json);
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<String> getTextTurns() {
+        return new ArrayList<>(textTurns);
+    }
+
+    /**
+     * Drop everything, returning its bytes to the shared budget
+     */
+    public synchronized void clear() {
+        realtimeInputs.clear();
+        textTurns.clear();
+        sharedBytes.addAndGet(-bufferedBytes);
+        bufferedBytes = 0;
+    }
+
+    private void trim(long now) {
+        Entry oldest;
+        while ((oldest = realtimeInputs.peekFirst()) != null
+                && (now - oldest.timestamp > windowMs || bufferedBytes > maxBytes || sharedBytes.get() > maxSharedBytes)) {
+            realtimeInputs.pollFirst();
+            bufferedBytes -= oldest.json.length();
+            sharedBytes.addAndGet(-oldest.json.length());
+        }
+    }
+
+    private static class Entry {
+        private final long timestamp;
+        private final String json;
+
+        Entry(long timestamp, String json) {
+            this.timestamp = timestamp;
+            this.json = json;
+        }
+    }
+}
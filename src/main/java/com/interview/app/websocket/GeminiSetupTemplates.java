@@ -0,0 +1,284 @@
+package com.interview.app.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.app.dto.SetupMessage;
+import com.interview.app.model.Candidate.InterviewRound.InterviewLevel;
+import com.interview.app.model.Candidate.InterviewRound.InterviewType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of pre-serialized Gemini setup messages.
+ *
+ * A setup payload depends only on voice, model, system instruction and tool set, so each
+ * distinct combination is serialized once and reused for every session that needs it.
+ * Prompts, voices and tools can be overridden per interview type and level in the prompts
+ * file; {@link #reload()} re-reads that file and drops the compiled templates.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GeminiSetupTemplates {
+    
+    private static final String HANDLE_PLACEHOLDER = "__session_resumption_handle__";
+    
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    
+    private final Map<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+    private final Map<String, Template> byInterview = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong compiles = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    
+    private volatile Properties overrides = new Properties();
+    private volatile long loadedAt;
+    
+    @Value("${gemini.api.model}")
+    private String model;
+    
+    @Value("${interview.config.default-voice:Aoede}")
+    private String defaultVoice;
+    
+    @Value("${interview.config.response-modality:audio}")
+    private String responseModality;
+    
+    @Value("${interview.config.system-instruction}")
+    private String defaultInstruction;
+    
+    @Value("${interview.config.enable-google-search:true}")
+    private boolean googleSearch;
+    
+    @Value("${interview.config.enable-code-execution:false}")
+    private boolean codeExecution;
+    
+    @Value("${interview.setup.prompts-location:classpath:setup-prompts.properties}")
+    private String promptsLocation;
+    
+    @PostConstruct
+    public void init() {
+        overrides = loadOverrides();
+        loadedAt = System.currentTimeMillis();
+    }
+    
+    /**
+     * Template for sessions that do not name an interview type
+     */
+    public Template defaultTemplate() {
+        return forInterview(null, null);
+    }
+    
+    /**
+     * Template for an interview round. Lookups fall back from type and level, to type, to the
+     * application defaults.
+     */
+    public Template forInterview(InterviewType type, InterviewLevel level) {
+        Template resolved = byInterview.get(type + "." + level);
+        if (resolved != null) {
+            hits.incrementAndGet();
+            return resolved;
+        }
+        
+        Properties current = overrides;
+        String voice = resolve(current, "voice", type, level, defaultVoice);
+        String instruction = resolve(current, "prompt", type, level, defaultInstruction);
+        String tools = resolve(current, "tools", type, level, defaultTools());
+        
+        // Interview types sharing voice, prompt and tools share one template
+        Template template = templates.computeIfAbsent(new TemplateKey(voice, model, instruction, tools), this::compile);
+        if (current == overrides) {
+            byInterview.put(type + "." + level, template);
+        }
+        return template;
+    }
+    
+    /**
+     * Re-read the prompts file and discard compiled templates; sessions already set up keep
+     * the payload they were started with
+     */
+    public Map<String, Object> reload() {
+        Properties reloaded = loadOverrides();
+        templates.clear();
+        overrides = reloaded;
+        byInterview.clear();
+        loadedAt = System.currentTimeMillis();
+        reloads.incrementAndGet();
+        log.info("Reloaded Gemini setup templates from {} ({} overrides)", promptsLocation, overrides.size());
+        return getStats();
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("model", model);
+        stats.put("promptsLocation", promptsLocation);
+        stats.put("overrides", overrides.size());
+        stats.put("templates", templates.size());
+        stats.put("hits", hits.get());
+        stats.put("compiles", compiles.get());
+        stats.put("reloads", reloads.get());
+        stats.put("loadedAt", loadedAt);
+        return stats;
+    }
+    
+    private static String resolve(Properties source, String name, InterviewType type, InterviewLevel level,
+                                  String fallback) {
+        if (type != null) {
+            if (level != null) {
+                String value = source.getProperty(name + "." + type + "." + level);
+                if (value != null) {
+                    return value;
+                }
+            }
+            String value = source.getProperty(name + "." + type);
+            if (value != null) {
+                return value;
+            }
+        }
+        return source.getProperty(name, fallback);
+    }
+    
+    private String defaultTools() {
+        List<String> tools = new ArrayList<>();
+        if (googleSearch) {
+            tools.add("googleSearch");
+        }
+        if (codeExecution) {
+            tools.add("codeExecution");
+        }
+        return String.join(",", tools);
+    }
+    
+    private Properties loadOverrides() {
+        Properties properties = new Properties();
+        Resource resource = resourceLoader.getResource(promptsLocation);
+        if (!resource.exists()) {
+            log.info("No setup prompts file at {}, using defaults only", promptsLocation);
+            return properties;
+        }
+        try (InputStream input = resource.getInputStream()) {
+            properties.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to read setup prompts from {}, keeping previous prompts", promptsLocation, e);
+            return overrides;
+        }
+        return properties;
+    }
+    
+    private Template compile(TemplateKey key) {
+        try {
+            Map<String, Object> setup = buildSetup(key);
+            String plain = objectMapper.writeValueAsString(new SetupMessage(setup));
+            
+            setup.put("sessionResumption", new HashMap<>());
+            String resumable = objectMapper.writeValueAsString(new SetupMessage(setup));
+            
+            setup.put("sessionResumption", Map.of("handle", HANDLE_PLACEHOLDER));
+            String withHandle = objectMapper.writeValueAsString(new SetupMessage(setup));
+            int split = withHandle.indexOf("\"" + HANDLE_PLACEHOLDER + "\"");
+            
+            compiles.incrementAndGet();
+            log.info("Compiled Gemini setup template (voice={}, model={}, tools={}, {} bytes)",
+                key.voice, key.model, key.tools, plain.length());
+            return new Template(plain, resumable, withHandle.substring(0, split),
+                withHandle.substring(split + HANDLE_PLACEHOLDER.length() + 2));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Gemini setup message", e);
+        }
+    }
+    
+    private Map<String, Object> buildSetup(TemplateKey key) {
+        Map<String, Object> setup = new LinkedHashMap<>();
+        setup.put("model", key.model);
+        
+        // Generation config with audio response
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("responseModalities", responseModality);
+        generationConfig.put("speechConfig",
+            Map.of("voiceConfig", Map.of("prebuiltVoiceConfig", Map.of("voiceName", key.voice))));
+        setup.put("generationConfig", generationConfig);
+        
+        setup.put("systemInstruction", Map.of("parts", List.of(Map.of("text", key.instruction))));
+        
+        List<Map<String, Object>> tools = new ArrayList<>();
+        for (String tool : key.tools.split(",")) {
+            if (!tool.isBlank()) {
+                tools.add(Map.of(tool.trim(), new HashMap<>()));
+            }
+        }
+        setup.put("tools", tools);
+        return setup;
+    }
+    
+    @lombok.Value
+    private static class TemplateKey {
+        String voice;
+        String model;
+        String instruction;
+        String tools;
+    }
+    
+    /**
+     * Serialized setup message, with variants for session resumption
+     */
+    public static class Template {
+        private final String plain;
+        private final String resumable;
+        private final String handlePrefix;
+        private final String handleSuffix;
+        
+        Template(String plain, String resumable, String handlePrefix, String handleSuffix) {
+            this.plain = plain;
+            this.resumable = resumable;
+            this.handlePrefix = handlePrefix;
+            this.handleSuffix = handleSuffix;
+        }
+        
+        /**
+         * Setup JSON to send. With resumption enabled Gemini is asked for handles, and a known
+         * handle is presented to resume the previous session.
+         */
+        public String render(boolean sessionResumption, String handle) {
+            if (!sessionResumption) {
+                return plain;
+            }
+            if (handle == null) {
+                return resumable;
+            }
+            return handlePrefix + quote(handle) + handleSuffix;
+        }
+        
+        private static String quote(String value) {
+            StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    quoted.append('\\').append(c);
+                } else if (c < 0x20) {
+                    quoted.append(String.format("\\u%04x", (int) c));
+                } else {
+                    quoted.append(c);
+                }
+            }
+            return quoted.append('"').toString();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.interview.app.websocket;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single TLS context shared by every Gemini connection.
+ *
+ * Certificates are validated against the JDK trust store, and the client session cache
+ * is shared so later handshakes to the same host can resume instead of doing a full
+ * handshake. Handshake timings are split by full versus resumed.
+ */
+@Slf4j
+@Component
+public class GeminiTlsContext {
+    
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong fullHandshakeMillisTotal = new AtomicLong();
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private final AtomicLong resumedHandshakeMillisTotal = new AtomicLong();
+    
+    @Value("${gemini.tls.session-cache-size:256}")
+    private int sessionCacheSize;
+    
+    @Value("${gemini.tls.session-timeout-seconds:86400}")
+    private int sessionTimeoutSeconds;
+    
+    private SSLContext sslContext;
+    private SSLSocketFactory socketFactory;
+    
+    @PostConstruct
+    public void init() throws Exception {
+        // Session tickets are on by default since JDK 13. The JDK reads the flag once, so it can
+        // only be changed on the command line; just report a launch that turned them off.
+        if ("false".equalsIgnoreCase(System.getProperty("jdk.tls.client.enableSessionTicketExtension"))) {
+            log.warn("TLS session tickets are disabled (-Djdk.tls.client.enableSessionTicketExtension=false), "
+                + "Gemini handshakes will resume less often");
+        }
+        
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init((KeyStore) null);
+        
+        sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        sessionContext.setSessionCacheSize(sessionCacheSize);
+        sessionContext.setSessionTimeout(sessionTimeoutSeconds);
+        
+        socketFactory = new InstrumentedSocketFactory(sslContext.getSocketFactory());
+        log.info("Initialized shared Gemini TLS context. Session cache size: {}, timeout: {}s",
+                 sessionCacheSize, sessionTimeoutSeconds);
+    }
+    
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+    
+    public SSLSocketFactory getSocketFactory() {
+        return socketFactory;
+    }
+    
+    /**
+     * Handshake counts and average connect+handshake time, full versus resumed
+     */
+    public Map<String, Object> getHandshakeStats() {
+        long full = fullHandshakes.get();
+        long resumed = resumedHandshakes.get();
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("fullHandshakes", full);
+        stats.put("resumedHandshakes", resumed);
+        stats.put("avgFullHandshakeMillis", full > 0 ? fullHandshakeMillisTotal.get() / full : 0);
+        stats.put("avgResumedHandshakeMillis", resumed > 0 ? resumedHandshakeMillisTotal.get() / resumed : 0);
+        stats.put("resumptionRatio", full + resumed > 0 ? (double) resumed / (full + resumed) : 0.0);
+        return stats;
+    }
+    
+    private Socket instrument(Socket socket) {
+        if (socket instanceof SSLSocket sslSocket) {
+            long startMillis = System.currentTimeMillis();
+            sslSocket.addHandshakeCompletedListener(event -> recordHandshake(event, startMillis));
+        }
+        return socket;
+    }
+    
+    private void recordHandshake(HandshakeCompletedEvent event, long startMillis) {
+        long elapsed = System.currentTimeMillis() - startMillis;
+        // A resumed session keeps the creation time of the session it was resumed from
+        boolean resumed = event.getSession().getCreationTime() < startMillis;
+        if (resumed) {
+            resumedHandshakes.incrementAndGet();
+            resumedHandshakeMillisTotal.addAndGet(elapsed);
+        } else {
+            fullHandshakes.incrementAndGet();
+            fullHandshakeMillisTotal.addAndGet(elapsed);
+        }
+        log.debug("TLS handshake completed in {} ms (resumed: {}, protocol: {})",
+                  elapsed, resumed, event.getSession().getProtocol());
+    }
+    
+    private class InstrumentedSocketFactory extends SSLSocketFactory {
+        
+        private final SSLSocketFactory delegate;
+        
+        InstrumentedSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+        
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+        
+        @Override
+        public Socket createSocket() throws IOException {
+            return instrument(delegate.createSocket());
+        }
+        
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return instrument(delegate.createSocket(socket, host, port, autoClose));
+        }
+        
+        @Override
+        public Socket createSocket(Socket socket, InputStream consumed, boolean autoClose) throws IOException {
+            return instrument(delegate.createSocket(socket, consumed, autoClose));
+        }
+        
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return instrument(delegate.createSocket(host, port));
+        }
+        
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return instrument(delegate.createSocket(host, port, localHost, localPort));
+        }
+        
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return instrument(delegate.createSocket(host, port));
+        }
+        
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return instrument(delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.interview.app.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Socket underneath a GeminiWebSocketClient. Implementations only move frames; the
+ * Gemini Live protocol stays in the client.
+ */
+public interface GeminiTransport {
+    
+    /**
+     * Open the socket, or re-open it after a close. Never blocks; the outcome is reported
+     * through the listener.
+     */
+    void connect();
+    
+    void send(String text);
+    
+    void sendPing();
+    
+    boolean isOpen();
+    
+    boolean hasBufferedData();
+    
+    /**
+     * Approximate number of bytes written by the application but not yet flushed to the socket
+     */
+    long getBufferedBytes();
+    
+    void close();
+    
+    void closeBlocking() throws InterruptedException;
+    
+    String getState();
+    
+    interface Listener {
+        void onOpen(int httpStatus, String httpStatusMessage);
+        void onMessage(String message);
+        void onMessage(ByteBuffer bytes);
+        void onPong();
+        void onClose(int code, String reason, boolean remote);
+        void onError(Exception ex);
+    }
+}
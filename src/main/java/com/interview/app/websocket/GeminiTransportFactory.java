@@ -0,0 +1,99 @@
+package com.interview.app.websocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the socket transport for Gemini connections, selected by gemini.transport.type:
+ * java-websocket (two threads per connection) or jdk (shared java.net.http client).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GeminiTransportFactory {
+    
+    public static final String JAVA_WEBSOCKET = "java-websocket";
+    public static final String JDK = "jdk";
+    
+    private static final Map<String, String> HEADERS = Map.of(
+        "Origin", "http://localhost:8080",
+        "User-Agent", "Interview-App/1.0"
+    );
+    
+    private final GeminiTlsContext tlsContext;
+    
+    @Value("${gemini.transport.type:java-websocket}")
+    private String transportType;
+    
+    @Value("${gemini.transport.jdk-threads:2}")
+    private int jdkThreads;
+    
+    @Value("${gemini.transport.connect-timeout-ms:10000}")
+    private long connectTimeoutMs;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private volatile HttpClient httpClient;
+    private volatile ExecutorService jdkExecutor;
+    
+    public GeminiTransport create(URI serverUri, GeminiTransport.Listener listener) {
+        if (JDK.equalsIgnoreCase(transportType)) {
+            return new JdkWebSocketTransport(getHttpClient(), serverUri, HEADERS, listener);
+        }
+        return new JavaWebSocketTransport(serverUri, HEADERS, tlsContext.getSocketFactory(), listener);
+    }
+    
+    public String getTransportType() {
+        return transportType;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (jdkExecutor != null) {
+            jdkExecutor.shutdownNow();
+        }
+    }
+    
+    private HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    if (virtualThreads) {
+                        jdkExecutor = Executors.newThreadPerTaskExecutor(
+                            Thread.ofVirtual().name("gemini-jdk-ws-", 1).factory());
+                    } else {
+                        AtomicInteger counter = new AtomicInteger();
+                        ThreadFactory threadFactory = runnable -> {
+                            Thread thread = new Thread(runnable, "gemini-jdk-ws-" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        };
+                        jdkExecutor = Executors.newFixedThreadPool(jdkThreads, threadFactory);
+                    }
+                    httpClient = HttpClient.newBuilder()
+                        .sslContext(tlsContext.getSslContext())
+                        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                        .executor(jdkExecutor)
+                        .build();
+                    log.info("Created shared JDK WebSocket client with {} threads", jdkThreads);
+                }
+                client = httpClient;
+            }
+        }
+        return client;
+    }
+}
@@ -2,69 +2,69 @@ package com.interview.app.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.interview.app.dto.MediaChunk;
-import com.interview.app.dto.SetupMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.java_websocket.client.WebSocketClient;
-import org.java_websocket.enums.ReadyState;
-import org.java_websocket.handshake.ServerHandshake;
-import org.springframework.beans.factory.annotation.Value;
 
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
-public class GeminiWebSocketClient extends WebSocketClient {
+public class GeminiWebSocketClient implements GeminiTransport.Listener {
+    
+    private static final Set<Integer> RECOVERABLE_CLOSE_CODES = Set.of(1001, 1006, 1011, 1012, 1013, 1014);
     
     private final ObjectMapper objectMapper;
-    private final Map<String, SessionHandler> sessionHandlers = new ConcurrentHashMap<>();
-    private boolean isConnected = false;
-    private final String sessionId;
-    private final String defaultVoice;
-    private final String systemInstruction;
+    private final GeminiTransport transport;
+    private volatile SessionHandler handler = NO_HANDLER;
+    private volatile boolean isConnected = false;
+    private volatile CompletableFuture<Void> setupFuture;
+    private volatile CompletableFuture<Void> connectFuture;
+    private volatile String pendingSetupSessionId;
+    private volatile long lastPongAt;
+    private volatile String sessionId;
     
-    @Value("${gemini.api.model}")
-    private String model;
+    // Recovery state, see GeminiReconnectSupervisor
+    private volatile ConnectionListener connectionListener;
+    private volatile GeminiReplayBuffer replayBuffer;
+    private volatile boolean sessionResumptionEnabled;
+    private volatile String resumptionHandle;
+    private volatile boolean lastSetupUsedHandle;
+    private volatile boolean released;
+    private volatile boolean setupCompletedOnce;
+    private boolean setupAcknowledged;
+    private volatile boolean recovering;
+    private volatile int reconnectAttempt;
+    private volatile long connectionLostAt;
     
-    @Value("${interview.config.response-modality}")
-    private String responseModality;
+    private final GeminiSetupTemplates setupTemplates;
+    private volatile GeminiSetupTemplates.Template setupTemplate;
     
-    // Constructor for Spring Bean (backward compatibility)
-    public GeminiWebSocketClient(URI serverUri, ObjectMapper objectMapper) {
-        super(serverUri);
+    // Constructor for pooled connections, bound to a session on checkout
+    public GeminiWebSocketClient(URI serverUri, GeminiTransportFactory transportFactory, ObjectMapper objectMapper,
+                                GeminiSetupTemplates setupTemplates) {
         this.objectMapper = objectMapper;
-        this.sessionId = null;
-        this.defaultVoice = null;
-        this.systemInstruction = null;
-        
-        // Add necessary headers
-        this.addHeader("Origin", "http://localhost:8080");
-        this.addHeader("User-Agent", "Interview-App/1.0");
-    }
-    
-    // Constructor for dedicated session connections
-    public GeminiWebSocketClient(URI serverUri, ObjectMapper objectMapper, String sessionId, 
-                                String defaultVoice, String systemInstruction) {
-        super(serverUri);
-        this.objectMapper = objectMapper;
-        this.sessionId = sessionId;
-        this.defaultVoice = defaultVoice;
-        this.systemInstruction = systemInstruction;
-        
-        // Add necessary headers
-        this.addHeader("Origin", "http://localhost:8080");
-        this.addHeader("User-Agent", "Interview-App/1.0");
+        this.setupTemplates = setupTemplates;
+        this.transport = transportFactory.create(serverUri, this);
     }
     
     @Override
-    public void onOpen(ServerHandshake handshake) {
+    public void onOpen(int httpStatus, String httpStatusMessage) {
         log.info("Connected to Gemini Live API - Status: {}, HTTP Status: {}", 
-                 handshake.getHttpStatusMessage(), handshake.getHttpStatus());
+                 httpStatusMessage, httpStatus);
         isConnected = true;
+        lastPongAt = System.currentTimeMillis();
+        
+        CompletableFuture<Void> connected = connectFuture;
+        if (connected != null) {
+            connected.complete(null);
+        }
         
-        // Don't send setup here - it will be sent in setupSession
-        // This prevents sending duplicate setup messages
+        // Setup is sent as soon as the socket is open, no need to wait on the caller
+        String pendingSessionId = pendingSetupSessionId;
+        if (pendingSessionId != null) {
+            sendSetupMessage(pendingSessionId);
+        }
     }
     
     @Override
@@ -80,6 +80,8 @@ public class GeminiWebSocketClient extends WebSocketClient {
                 handleServerContent(response);
             } else if (response.containsKey("toolCall")) {
                 handleToolCall(response);
+            } else if (response.containsKey("sessionResumptionUpdate")) {
+                handleSessionResumptionUpdate(response);
             } else {
                 log.warn("Received unknown message type: {}", response.keySet());
             }
@@ -106,6 +108,8 @@ public class GeminiWebSocketClient extends WebSocketClient {
                 handleServerContent(response);
             } else if (response.containsKey("toolCall")) {
                 handleToolCall(response);
+            } else if (response.containsKey("sessionResumptionUpdate")) {
+                handleSessionResumptionUpdate(response);
             } else {
                 log.warn("Received unknown binary message type: {}", response.keySet());
             }
@@ -146,8 +150,31 @@ public class GeminiWebSocketClient extends WebSocketClient {
                 log.error("Unknown close code: {}", code);
         }
         
-        // Notify all sessions about disconnection
-        sessionHandlers.values().forEach(handler -> handler.onDisconnect());
+        CompletableFuture<Void> connected = connectFuture;
+        if (connected != null && !connected.isDone()) {
+            connected.completeExceptionally(new IllegalStateException(
+                "Gemini connection closed before opening. Code: " + code + ", Reason: " + reason));
+        }
+        
+        CompletableFuture<Void> future = setupFuture;
+        if (future != null && !future.isDone()) {
+            future.completeExceptionally(new IllegalStateException(
+                "Gemini connection closed before setup completed. Code: " + code + ", Reason: " + reason));
+        }
+        
+        // Hand a live session over to the supervisor instead of killing the interview
+        if (isRecoverable(code)) {
+            if (!recovering) {
+                recovering = true;
+                connectionLostAt = System.currentTimeMillis();
+                reconnectAttempt = 0;
+            }
+            connectionListener.onConnectionLost(this, reconnectAttempt + 1);
+            return;
+        }
+        
+        // Notify the owning session about disconnection
+        handler.onDisconnect();
     }
     
     @Override
@@ -156,62 +183,197 @@ public class GeminiWebSocketClient extends WebSocketClient {
         isConnected = false;
     }
     
-    public void setupSession(String sessionId, SessionHandler handler) {
-        sessionHandlers.put(sessionId, handler);
-        
-        // If we have an existing connection that's not in a good state, close it
-        if (isOpen() && !isConnected) {
-            log.info("WebSocket in bad state, closing existing connection");
-            try {
-                closeBlocking();
-            } catch (InterruptedException e) {
-                log.error("Error closing connection", e);
-                Thread.currentThread().interrupt();
-            }
+    @Override
+    public void onPong() {
+        lastPongAt = System.currentTimeMillis();
+    }
+    
+    public boolean isOpen() {
+        return transport.isOpen();
+    }
+    
+    public boolean hasBufferedData() {
+        return transport.hasBufferedData();
+    }
+    
+    public long getBufferedBytes() {
+        return transport.getBufferedBytes();
+    }
+    
+    public void sendPing() {
+        transport.sendPing();
+    }
+    
+    public void close() {
+        transport.close();
+    }
+    
+    public void closeBlocking() throws InterruptedException {
+        transport.closeBlocking();
+    }
+    
+    public String getState() {
+        return transport.getState();
+    }
+    
+    private void send(String json) {
+        transport.send(json);
+    }
+    
+    /**
+     * Enable automatic recovery for this connection
+     */
+    public void configureRecovery(ConnectionListener listener, GeminiReplayBuffer replayBuffer,
+                                  boolean sessionResumptionEnabled) {
+        this.connectionListener = listener;
+        this.replayBuffer = replayBuffer;
+        this.sessionResumptionEnabled = sessionResumptionEnabled;
+    }
+    
+    /**
+     * Mark the connection as intentionally closed so a following close is not recovered
+     */
+    public void release() {
+        released = true;
+        recovering = false;
+        GeminiReplayBuffer buffer = replayBuffer;
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+    
+    public boolean isReleased() {
+        return released;
+    }
+    
+    /**
+     * Reconnect and re-send setup; called by the supervisor off the WebSocket thread
+     */
+    public void resume(int attempt) {
+        reconnectAttempt = attempt;
+        pendingSetupSessionId = sessionId;
+        handler.onReconnecting(attempt);
+        try {
+            transport.connect();
+        } catch (RuntimeException e) {
+            log.error("Reconnect attempt {} failed to start for session: {}", attempt, sessionId, e);
+            connectionListener.onConnectionLost(this, attempt + 1);
+        }
+    }
+    
+    /**
+     * Stop recovering and report the session as disconnected
+     */
+    public void abandonRecovery() {
+        recovering = false;
+        handler.onDisconnect();
+    }
+    
+    /**
+     * Open the socket without a session so it can sit warm in the pool
+     */
+    public CompletableFuture<Void> connectAsync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        connectFuture = future;
+        try {
+            transport.connect();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Attach the single event sink for this connection. A connection belongs to exactly one
+     * session, so events are delivered straight to its handler without any fan-out.
+     */
+    private void bindHandler(String sessionId, SessionHandler sessionHandler) {
+        if (this.sessionId != null && !this.sessionId.equals(sessionId)) {
+            throw new IllegalStateException("Connection bound to session " + this.sessionId
+                + " cannot be set up for session " + sessionId);
         }
+        this.sessionId = sessionId;
+        this.handler = sessionHandler;
+    }
+    
+    /**
+     * Bind this connection to the interview session that checked it out
+     */
+    public void bindSession(String sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    /**
+     * Time of the last pong (or open) seen on this socket, used to validate idle connections
+     */
+    public long getLastPongAt() {
+        return lastPongAt;
+    }
+    
+    /**
+     * Start the Gemini session without blocking the caller. The connection handshake runs
+     * on the client's own thread, the setup message is sent from onOpen and the returned
+     * future completes once Gemini acknowledges the setup.
+     */
+    public CompletableFuture<Void> setupSession(String sessionId, SessionHandler handler) {
+        return setupSession(sessionId, setupTemplates.defaultTemplate(), handler);
+    }
+    
+    /**
+     * Start the Gemini session with a specific setup template, e.g. one for the interview type
+     */
+    public CompletableFuture<Void> setupSession(String sessionId, GeminiSetupTemplates.Template template,
+                                                SessionHandler handler) {
+        bindHandler(sessionId, handler);
+        setupTemplate = template;
         
-        // Ensure we're connected
-        if (!isConnected || !isOpen()) {
-            log.info("WebSocket not connected, attempting to connect...");
-            try {
-                // Reconnect to ensure fresh connection
-                if (getReadyState() == ReadyState.CLOSED) {
-                    reconnectBlocking();
-                } else {
-                    boolean connected = this.connectBlocking();
-                    log.info("Connection attempt result: {}", connected);
-                    if (!connected) {
-                        log.error("Failed to connect to Gemini WebSocket");
-                        handler.onDisconnect();
-                        return;
-                    }
-                }
-            } catch (InterruptedException e) {
-                log.error("Connection interrupted", e);
-                Thread.currentThread().interrupt();
-                return;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        setupFuture = future;
+        pendingSetupSessionId = sessionId;
+        
+        try {
+            if (isOpen()) {
+                sendSetupMessage(sessionId);
+            } else {
+                log.info("Connecting to Gemini for session: {}", sessionId);
+                transport.connect();
             }
+        } catch (RuntimeException e) {
+            log.error("Failed to start Gemini connection for session: {}", sessionId, e);
+            future.completeExceptionally(e);
         }
         
-        if (isConnected) {
-            // Add a small delay to ensure connection is fully established
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            sendSetupMessage(sessionId);
-        } else {
-            log.warn("WebSocket not connected yet, setup will be sent when connection is established");
+        return future;
+    }
+    
+    /**
+     * Hand a session that was set up ahead of time over to the interview session claiming it.
+     * The handler is told about setup completion exactly once, right away if Gemini has
+     * already acknowledged the setup. Returns the original setup future.
+     */
+    public CompletableFuture<Void> adoptSession(String sessionId, SessionHandler sessionHandler) {
+        boolean acknowledged;
+        synchronized (this) {
+            this.sessionId = sessionId;
+            this.handler = sessionHandler;
+            acknowledged = setupAcknowledged;
+        }
+        if (acknowledged) {
+            sessionHandler.onSetupComplete();
         }
+        return setupFuture;
     }
     
     public void removeSession(String sessionId) {
-        sessionHandlers.remove(sessionId);
+        handler = NO_HANDLER;
         
-        // If no more sessions, close the connection to ensure clean state for next session
-        if (sessionHandlers.isEmpty() && isOpen()) {
-            log.info("No active sessions, closing WebSocket connection");
+        // Connections are single-owner, so close to ensure clean state for the next session
+        if (isOpen()) {
+            log.info("Session {} released, closing WebSocket connection", sessionId);
             try {
                 closeBlocking();
                 isConnected = false;
@@ -224,11 +386,6 @@ public class GeminiWebSocketClient extends WebSocketClient {
     
     public void sendRealtimeInput(String sessionId, List<MediaChunk> mediaChunks) {
         try {
-            if (!isConnected) {
-                log.warn("Cannot send realtime input - not connected to Gemini");
-                return;
-            }
-            
             Map<String, Object> message = new HashMap<>();
             Map<String, Object> realtimeInput = new HashMap<>();
             
@@ -245,6 +402,28 @@ public class GeminiWebSocketClient extends WebSocketClient {
             message.put("realtimeInput", realtimeInput);
             
             String json = objectMapper.writeValueAsString(message);
+            
+            // Record first so input sent while reconnecting is replayed afterwards. Input recorded
+            // while recovering is left to the replay alone, even once the new socket is open,
+            // since sending it too would hand it to Gemini twice.
+            GeminiReplayBuffer buffer = replayBuffer;
+            boolean deferred = recovering;
+            if (buffer != null) {
+                synchronized (buffer) {
+                    buffer.recordRealtimeInput(json);
+                    deferred = recovering;
+                }
+            }
+            
+            if (deferred) {
+                log.debug("Deferred realtime input to the replay for session: {}", sessionId);
+                return;
+            }
+            if (!isConnected) {
+                log.warn("Cannot send realtime input - not connected to Gemini");
+                return;
+            }
+            
             log.debug("Sending realtime input JSON: {}", json);
             send(json);
             log.debug("Sent realtime input for session: {} with {} chunks", sessionId, chunks.size());
@@ -254,6 +433,11 @@ public class GeminiWebSocketClient extends WebSocketClient {
     }
     
     public void sendTextMessage(String sessionId, String text) {
+        GeminiReplayBuffer buffer = replayBuffer;
+        if (buffer != null) {
+            buffer.recordTextTurn(text);
+        }
+        
         try {
             Map<String, Object> message = new HashMap<>();
             Map<String, Object> clientContent = new HashMap<>();
@@ -284,53 +468,20 @@ public class GeminiWebSocketClient extends WebSocketClient {
     
     private void sendSetupMessage(String sessionId) {
         try {
-            // Create setup matching live-api-web-console exactly
-            Map<String, Object> setup = new HashMap<>();
-            setup.put("model", "models/gemini-2.0-flash-exp");
-            
-            // Generation config with audio response
-            Map<String, Object> generationConfig = new HashMap<>();
-            generationConfig.put("responseModalities", "audio");
-            
-            // Speech config with voice
-            Map<String, Object> speechConfig = new HashMap<>();
-            Map<String, Object> voiceConfig = new HashMap<>();
-            Map<String, Object> prebuiltVoiceConfig = new HashMap<>();
-            prebuiltVoiceConfig.put("voiceName", defaultVoice != null ? defaultVoice : "Aoede");
-            voiceConfig.put("prebuiltVoiceConfig", prebuiltVoiceConfig);
-            speechConfig.put("voiceConfig", voiceConfig);
-            generationConfig.put("speechConfig", speechConfig);
-            
-            setup.put("generationConfig", generationConfig);
-            
-            // System instruction
-            Map<String, Object> systemInstructionObj = new HashMap<>();
-            List<Map<String, Object>> parts = new ArrayList<>();
-            Map<String, Object> part = new HashMap<>();
-            part.put("text", systemInstruction != null ? systemInstruction : 
-                "You are an AI interviewer conducting a technical interview. Be professional, ask relevant questions based on the candidate's responses, and evaluate their technical skills.");
-            parts.add(part);
-            systemInstructionObj.put("parts", parts);
-            setup.put("systemInstruction", systemInstructionObj);
-            
-            // Tools - matching live-api-web-console format
-            List<Map<String, Object>> tools = new ArrayList<>();
-            
-            // Google Search tool
-            Map<String, Object> googleSearchTool = new HashMap<>();
-            googleSearchTool.put("googleSearch", new HashMap<>());
-            tools.add(googleSearchTool);
-            
-            setup.put("tools", tools);
-            
-            // Use the SetupMessage class for proper serialization
-            SetupMessage message = new SetupMessage(setup);
+            GeminiSetupTemplates.Template template = setupTemplate;
+            if (template == null) {
+                template = setupTemplates.defaultTemplate();
+                setupTemplate = template;
+            }
             
-            String json = objectMapper.writeValueAsString(message);
-            log.info("Sending full setup message: {}", json);
+            // Ask for resumption handles, and present the latest one when reconnecting
+            String handle = recovering ? resumptionHandle : null;
+            lastSetupUsedHandle = sessionResumptionEnabled && handle != null;
+            String json = template.render(sessionResumptionEnabled, handle);
+            log.debug("Sending setup message: {}", json);
             
             if (!isOpen()) {
-                log.error("WebSocket is not open! State: {}", getReadyState());
+                log.error("WebSocket is not open! State: {}", getState());
                 return;
             }
             
@@ -343,8 +494,27 @@ public class GeminiWebSocketClient extends WebSocketClient {
     
     private void handleSetupComplete(Map<String, Object> response) {
         log.info("Setup complete");
-        // Notify all sessions that setup is complete
-        sessionHandlers.values().forEach(handler -> handler.onSetupComplete());
+        pendingSetupSessionId = null;
+        setupCompletedOnce = true;
+        
+        if (recovering) {
+            long downtime = System.currentTimeMillis() - connectionLostAt;
+            replayAfterReconnect();
+            connectionListener.onRecovered(this, downtime);
+            handler.onReconnected();
+            return;
+        }
+        
+        SessionHandler target;
+        synchronized (this) {
+            setupAcknowledged = true;
+            target = handler;
+        }
+        CompletableFuture<Void> future = setupFuture;
+        if (future != null) {
+            future.complete(null);
+        }
+        target.onSetupComplete();
     }
     
     private void handleServerContent(Map<String, Object> response) {
@@ -353,14 +523,14 @@ public class GeminiWebSocketClient extends WebSocketClient {
         // Check for interrupted
         if (serverContent.containsKey("interrupted") && Boolean.TRUE.equals(serverContent.get("interrupted"))) {
             log.info("Received interrupted signal");
-            sessionHandlers.values().forEach(handler -> handler.onInterrupted());
+            handler.onInterrupted();
             return;
         }
         
         // Check for turn complete
         if (serverContent.containsKey("turnComplete") && Boolean.TRUE.equals(serverContent.get("turnComplete"))) {
             log.info("Turn complete");
-            sessionHandlers.values().forEach(handler -> handler.onTurnComplete());
+            handler.onTurnComplete();
             // Continue processing in case there's more content
         }
         
@@ -378,26 +548,118 @@ public class GeminiWebSocketClient extends WebSocketClient {
                         
                         // Check if it's audio data
                         if (mimeType != null && mimeType.startsWith("audio/pcm")) {
-                            // Send audio data to all active sessions
-                            sessionHandlers.values().forEach(handler -> 
-                                handler.onAudioData(mimeType, data));
+                            handler.onAudioData(mimeType, data);
                         }
                     } else if (part.containsKey("text")) {
                         String text = (String) part.get("text");
-                        // Send text to all active sessions
-                        sessionHandlers.values().forEach(handler -> 
-                            handler.onTextResponse(text));
+                        handler.onTextResponse(text);
                     }
                 }
             }
         }
     }
     
+    private void handleSessionResumptionUpdate(Map<String, Object> response) {
+        if (!(response.get("sessionResumptionUpdate") instanceof Map<?, ?> update)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(update.get("resumable")) && update.get("newHandle") instanceof String newHandle) {
+            resumptionHandle = newHandle;
+            log.debug("Updated session resumption handle for session: {}", sessionId);
+        }
+    }
+    
+    private boolean isRecoverable(int code) {
+        if (released || !setupCompletedOnce || connectionListener == null || code == 1000 || code == 1008) {
+            return false;
+        }
+        // A failed reconnect attempt closes with whatever code the handshake produced
+        return recovering || RECOVERABLE_CLOSE_CODES.contains(code);
+    }
+    
+    /**
+     * Re-send what the new session is missing and end recovery. A resumed session already has
+     * the context up to the disconnect, a fresh one gets the recent text turns and the buffered
+     * realtime window. Recovery ends under the buffer's lock, so every input is either in the
+     * replay or sent by sendRealtimeInput after it, never both.
+     */
+    private void replayAfterReconnect() {
+        GeminiReplayBuffer buffer = replayBuffer;
+        if (buffer == null) {
+            recovering = false;
+            return;
+        }
+        
+        List<String> realtimeInputs;
+        synchronized (buffer) {
+            recovering = false;
+            if (lastSetupUsedHandle) {
+                realtimeInputs = buffer.realtimeInputSince(connectionLostAt);
+            } else {
+                realtimeInputs = buffer.realtimeInputSince(0);
+                sendContextTurns(buffer.getTextTurns());
+            }
+            realtimeInputs.forEach(this::send);
+        }
+        log.info("Replayed {} realtime inputs after reconnect for session: {} (resumed: {})",
+                 realtimeInputs.size(), sessionId, lastSetupUsedHandle);
+    }
+    
+    private void sendContextTurns(List<String> texts) {
+        if (texts.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> turns = new ArrayList<>();
+            for (String text : texts) {
+                Map<String, Object> part = new HashMap<>();
+                part.put("text", text);
+                Map<String, Object> turn = new HashMap<>();
+                turn.put("role", "user");
+                turn.put("parts", List.of(part));
+                turns.add(turn);
+            }
+            
+            Map<String, Object> clientContent = new HashMap<>();
+            clientContent.put("turns", turns);
+            clientContent.put("turnComplete", false);
+            send(objectMapper.writeValueAsString(Map.of("clientContent", clientContent)));
+        } catch (Exception e) {
+            log.error("Error replaying text turns for session: {}", sessionId, e);
+        }
+    }
+    
     private void handleToolCall(Map<String, Object> response) {
         // Handle tool calls if needed
         log.debug("Tool call received: {}", response);
     }
     
+    private static final SessionHandler NO_HANDLER = new SessionHandler() {
+        @Override
+        public void onSetupComplete() {
+        }
+        
+        @Override
+        public void onAudioData(String mimeType, String base64Data) {
+        }
+        
+        @Override
+        public void onTextResponse(String text) {
+        }
+        
+        @Override
+        public void onTurnComplete() {
+        }
+        
+        @Override
+        public void onInterrupted() {
+        }
+        
+        @Override
+        public void onDisconnect() {
+        }
+    };
+    
     public interface SessionHandler {
         void onSetupComplete();
         void onAudioData(String mimeType, String base64Data);
@@ -405,5 +667,16 @@ public class GeminiWebSocketClient extends WebSocketClient {
         void onTurnComplete();
         void onInterrupted();
         void onDisconnect();
+        
+        default void onReconnecting(int attempt) {
+        }
+        
+        default void onReconnected() {
+        }
+    }
+    
+    public interface ConnectionListener {
+        void onConnectionLost(GeminiWebSocketClient client, int attempt);
+        void onRecovered(GeminiWebSocketClient client, long downtimeMillis);
     }
 }
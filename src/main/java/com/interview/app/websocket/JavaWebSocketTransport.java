@@ -0,0 +1,135 @@
+package com.interview.app.websocket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.enums.ReadyState;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ServerHandshake;
+
+import javax.net.SocketFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Java-WebSocket transport. Each connection runs its own read and write thread.
+ */
+public class JavaWebSocketTransport implements GeminiTransport {
+    
+    private final Client client;
+    private final Listener listener;
+    
+    public JavaWebSocketTransport(URI serverUri, Map<String, String> headers, SocketFactory socketFactory,
+                                  Listener listener) {
+        this.client = new Client(serverUri, headers, listener);
+        this.listener = listener;
+        this.client.setSocketFactory(socketFactory);
+    }
+    
+    @Override
+    public void connect() {
+        if (client.getReadyState() == ReadyState.NOT_YET_CONNECTED) {
+            client.connect();
+        } else {
+            // reconnect() waits for the old socket's threads to finish, so it gets a thread of its own
+            Thread.ofVirtual().name("gemini-reconnect").start(() -> {
+                try {
+                    client.reconnect();
+                } catch (RuntimeException e) {
+                    // Reported like a failed connect, so the reconnect is retried
+                    listener.onError(e);
+                    listener.onClose(CloseFrame.NEVER_CONNECTED, e.toString(), false);
+                }
+            });
+        }
+    }
+    
+    @Override
+    public void send(String text) {
+        client.send(text);
+    }
+    
+    @Override
+    public void sendPing() {
+        client.sendPing();
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return client.isOpen();
+    }
+    
+    @Override
+    public boolean hasBufferedData() {
+        return client.hasBufferedData();
+    }
+    
+    @Override
+    public long getBufferedBytes() {
+        if (!(client.getConnection() instanceof WebSocketImpl connection)) {
+            return 0;
+        }
+        long bytes = 0;
+        for (ByteBuffer buffer : connection.outQueue) {
+            bytes += buffer.remaining();
+        }
+        return bytes;
+    }
+    
+    @Override
+    public void close() {
+        client.close();
+    }
+    
+    @Override
+    public void closeBlocking() throws InterruptedException {
+        client.closeBlocking();
+    }
+    
+    @Override
+    public String getState() {
+        return client.getReadyState().toString();
+    }
+    
+    private static class Client extends WebSocketClient {
+        
+        private final Listener listener;
+        
+        Client(URI serverUri, Map<String, String> headers, Listener listener) {
+            super(serverUri, headers);
+            this.listener = listener;
+        }
+        
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+            listener.onOpen(handshake.getHttpStatus(), handshake.getHttpStatusMessage());
+        }
+        
+        @Override
+        public void onMessage(String message) {
+            listener.onMessage(message);
+        }
+        
+        @Override
+        public void onMessage(ByteBuffer bytes) {
+            listener.onMessage(bytes);
+        }
+        
+        @Override
+        public void onWebsocketPong(WebSocket conn, Framedata f) {
+            listener.onPong();
+        }
+        
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            listener.onClose(code, reason, remote);
+        }
+        
+        @Override
+        public void onError(Exception ex) {
+            listener.onError(ex);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.interview.app.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JDK java.net.http transport. All connections share one HttpClient, so they are driven by
+ * its selector thread and a small executor instead of two threads per socket.
+ */
+@Slf4j
+public class JdkWebSocketTransport implements GeminiTransport {
+    
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+    
+    private final HttpClient httpClient;
+    private final URI serverUri;
+    private final Map<String, String> headers;
+    private final Listener listener;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    
+    private volatile WebSocket webSocket;
+    private volatile String state = "NOT_YET_CONNECTED";
+    private volatile CompletableFuture<Void> closed = new CompletableFuture<>();
+    
+    // Text and binary sends must not overlap, so each send is chained after the previous one
+    private CompletableFuture<?> sendChain = CompletableFuture.completedFuture(null);
+    
+    public JdkWebSocketTransport(HttpClient httpClient, URI serverUri, Map<String, String> headers, Listener listener) {
+        this.httpClient = httpClient;
+        this.serverUri = serverUri;
+        this.headers = headers;
+        this.listener = listener;
+    }
+    
+    @Override
+    public void connect() {
+        state = "CONNECTING";
+        closed = new CompletableFuture<>();
+        synchronized (this) {
+            sendChain = CompletableFuture.completedFuture(null);
+        }
+        pendingBytes.set(0);
+        
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder();
+        headers.forEach(builder::header);
+        
+        ConnectionListener connectionListener = new ConnectionListener();
+        builder.buildAsync(serverUri, connectionListener).whenComplete((ws, error) -> {
+            if (error != null) {
+                connectionListener.fail(-1, error);
+            }
+        });
+    }
+    
+    @Override
+    public void send(String text) {
+        WebSocket ws = webSocket;
+        if (ws == null || !isOpen()) {
+            throw new IllegalStateException("WebSocket is not open. State: " + state);
+        }
+        long size = text.length();
+        pendingBytes.addAndGet(size);
+        synchronized (this) {
+            sendChain = sendChain
+                .handle((ignored, error) -> null)
+                .thenCompose(ignored -> ws.sendText(text, true))
+                .whenComplete((ignored, error) -> {
+                    pendingBytes.addAndGet(-size);
+                    if (error != null) {
+                        log.error("Error sending to Gemini: {}", error.getMessage());
+                    }
+                });
+        }
+    }
+    
+    @Override
+    public void sendPing() {
+        WebSocket ws = webSocket;
+        if (ws != null && isOpen()) {
+            ws.sendPing(ByteBuffer.allocate(0));
+        }
+    }
+    
+    @Override
+    public boolean isOpen() {
+        WebSocket ws = webSocket;
+        return "OPEN".equals(state) && ws != null && !ws.isOutputClosed();
+    }
+    
+    @Override
+    public boolean hasBufferedData() {
+        return pendingBytes.get() > 0;
+    }
+    
+    @Override
+    public long getBufferedBytes() {
+        return pendingBytes.get();
+    }
+    
+    @Override
+    public void close() {
+        WebSocket ws = webSocket;
+        if (ws == null || "CLOSED".equals(state)) {
+            return;
+        }
+        state = "CLOSING";
+        ws.sendClose(WebSocket.NORMAL_CLOSURE, "").whenComplete((ignored, error) -> {
+            if (error != null) {
+                ws.abort();
+            }
+        });
+    }
+    
+    @Override
+    public void closeBlocking() throws InterruptedException {
+        close();
+        try {
+            closed.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            WebSocket ws = webSocket;
+            if (ws != null) {
+                ws.abort();
+            }
+        }
+    }
+    
+    @Override
+    public String getState() {
+        return state;
+    }
+    
+    private class ConnectionListener implements WebSocket.Listener {
+        
+        private final AtomicBoolean closeReported = new AtomicBoolean(false);
+        private final StringBuilder textBuffer = new StringBuilder();
+        private ByteBuffer binaryBuffer = ByteBuffer.allocate(0);
+        
+        @Override
+        public void onOpen(WebSocket ws) {
+            webSocket = ws;
+            state = "OPEN";
+            listener.onOpen(101, "Switching Protocols");
+            ws.request(1);
+        }
+        
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            textBuffer.append(data);
+            if (last) {
+                String message = textBuffer.toString();
+                textBuffer.setLength(0);
+                listener.onMessage(message);
+            }
+            ws.request(1);
+            return null;
+        }
+        
+        @Override
+        public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+            if (binaryBuffer.remaining() < data.remaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(binaryBuffer.position() + data.remaining());
+                binaryBuffer.flip();
+                grown.put(binaryBuffer);
+                binaryBuffer = grown;
+            }
+            binaryBuffer.put(data);
+            if (last) {
+                binaryBuffer.flip();
+                listener.onMessage(binaryBuffer);
+                binaryBuffer = ByteBuffer.allocate(0);
+            }
+            ws.request(1);
+            return null;
+        }
+        
+        @Override
+        public CompletionStage<?> onPong(WebSocket ws, ByteBuffer message) {
+            listener.onPong();
+            ws.request(1);
+            return null;
+        }
+        
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            report(statusCode, reason, true);
+            return null;
+        }
+        
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            fail(1006, error);
+        }
+        
+        void fail(int code, Throwable error) {
+            Exception ex = error instanceof Exception ? (Exception) error : new RuntimeException(error);
+            listener.onError(ex);
+            report(code, String.valueOf(error.getMessage()), true);
+        }
+        
+        private void report(int code, String reason, boolean remote) {
+            if (closeReported.compareAndSet(false, true)) {
+                state = "CLOSED";
+                closed.complete(null);
+                listener.onClose(code, reason, remote);
+            }
+        }
+    }
+}